@@ -0,0 +1,62 @@
+package com.user.task.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BenchmarkFixtures {
+    public static final LocalDate BIRTH_DATE = LocalDate.parse("2000-01-31");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static User user(long id) {
+        User user = new User("user" + id + "@email.com", "John", "Johnson", BIRTH_DATE, "+380671852382");
+        user.setId(id);
+        LocalAddress address = new LocalAddress("Shevchenko str", id);
+        address.setId(id);
+        user.setAddress(address);
+        return user;
+    }
+
+    public static UserRequestDto userRequest() {
+        try {
+            return objectMapper().readValue("""
+                    {
+                        "email": "username@email.com",
+                        "firstName": "John",
+                        "lastName": "Johnson",
+                        "birthDate": "2000-01-31",
+                        "address": {"street" : "Shevchenko str", "houseNumber" : "12"},
+                        "phoneNumber": "+380671852382"
+                    }""", UserRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<UserResponseDto> userResponses(int size) {
+        List<UserResponseDto> users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(new UserResponseDto(id, "user" + id + "@email.com", "John", "Johnson", BIRTH_DATE,
+                    id, "Shevchenko str", id, "+380671852382"));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,82 @@
+package com.user.task.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range query latency on the users table before (migration 1) and after (migration 2) the birth date index.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="BirthDateRangeQueryBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BirthDateRangeQueryBenchmark {
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.parse("1950-01-01");
+    private static final int BIRTH_DATE_SPREAD_DAYS = 25_000;
+    private static final int RANGE_DAYS = 30;
+    private static final String INSERT_USERS = "INSERT INTO users (email, first_name, last_name, birth_date)"
+            + " SELECT 'user' || X || '@email.com', 'John', 'Johnson',"
+            + " DATEADD(DAY, MOD(X * 7919, " + BIRTH_DATE_SPREAD_DAYS + "), DATE '" + FIRST_BIRTH_DATE + "')"
+            + " FROM SYSTEM_RANGE(1, ?)";
+    private static final String RANGE_QUERY = "SELECT u.*, a.* FROM users u"
+            + " LEFT JOIN local_addresses a ON a.id = u.local_address_id"
+            + " WHERE u.birth_date > ? AND u.birth_date < ?";
+
+    @Param({"100000", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"1", "2"})
+    private String migration;
+
+    private Connection connection;
+
+    private PreparedStatement rangeQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .target(migration)
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_USERS)) {
+            insert.setInt(1, rows);
+            insert.executeUpdate();
+        }
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("ANALYZE");
+        }
+        LocalDate from = FIRST_BIRTH_DATE.plusDays(BIRTH_DATE_SPREAD_DAYS / 2);
+        rangeQuery = connection.prepareStatement(RANGE_QUERY);
+        rangeQuery.setDate(1, Date.valueOf(from));
+        rangeQuery.setDate(2, Date.valueOf(from.plusDays(RANGE_DAYS)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement shutdown = connection.createStatement()) {
+            shutdown.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public void findAllBetweenDates(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = rangeQuery.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.user.task.benchmark;
+
+import com.user.task.validation.Matchers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Per-call {@code Pattern.compile} of the old email regex against the linear-time {@link Matchers#isEmail}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidationBenchmark {
+    private static final String REGEX_EMAIL = "^(.+)@(\\S+)$";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(REGEX_EMAIL);
+
+    @Param({"valid", "invalid", "adversarial"})
+    private String input;
+
+    private String email;
+
+    @Setup
+    public void setUp() {
+        email = switch (input) {
+            case "valid" -> "username@email.com";
+            case "invalid" -> "username.email.com";
+            default -> "a" + "@".repeat(2_000) + " ";
+        };
+    }
+
+    @Benchmark
+    public boolean compiledPerCall() {
+        return Pattern.compile(REGEX_EMAIL).matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean precompiled() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean linearMatcher() {
+        return Matchers.isEmail(email);
+    }
+}
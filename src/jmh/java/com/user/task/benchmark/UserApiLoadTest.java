@@ -0,0 +1,127 @@
+package com.user.task.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running instance: every client sends its next request as soon as the previous
+ * one completes. Start the application with and without the {@code virtual-threads} profile and compare.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec@load-test -Dload.args="--clients=1000,5000,10000"}.
+ * Options: {@code --url}, {@code --path}, {@code --clients}, {@code --duration} and {@code --warmup} in seconds,
+ * {@code --users} to seed before the first run.
+ */
+public class UserApiLoadTest {
+    private static final long BUCKET_NANOS = 100_000;
+    private static final int BUCKETS = 600_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder errors = new LongAdder();
+
+    private volatile long recordFrom;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String path = options.getOrDefault("path", "/users/page?from=1950-01-01&to=2010-01-01&size=20");
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int[] clients = Arrays.stream(options.getOrDefault("clients", "1000,5000,10000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        seed(url, users);
+        for (int clientCount : clients) {
+            new UserApiLoadTest().run(URI.create(url + path), clientCount, warmup, duration);
+        }
+        System.exit(0);
+    }
+
+    private static void seed(String url, int users) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < users; i++) {
+            body.append("{\"email\":\"load").append(System.nanoTime()).append(i)
+                    .append("@email.com\",\"firstName\":\"John\",\"lastName\":\"Johnson\",")
+                    .append("\"birthDate\":\"").append(1960 + i % 40).append("-01-31\",")
+                    .append("\"address\":{\"street\":\"Shevchenko str\",\"houseNumber\":").append(i).append("}}\n");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/users/batch"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void run(URI uri, int clientCount, int warmup, int duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        long start = System.nanoTime();
+        recordFrom = start + Duration.ofSeconds(warmup).toNanos();
+        long deadline = recordFrom + Duration.ofSeconds(duration).toNanos();
+        CountDownLatch finished = new CountDownLatch(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            send(request, deadline, finished);
+        }
+        finished.await();
+        report(clientCount, duration);
+    }
+
+    private void send(HttpRequest request, long deadline, CountDownLatch finished) {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long end = System.nanoTime();
+            if (start >= recordFrom && end <= deadline) {
+                if (error != null || response.statusCode() != 200) {
+                    errors.increment();
+                } else {
+                    latencies.incrementAndGet((int) Math.min((end - start) / BUCKET_NANOS, BUCKETS - 1));
+                }
+            }
+            if (end < deadline) {
+                send(request, deadline, finished);
+            } else {
+                finished.countDown();
+            }
+        });
+    }
+
+    private void report(int clientCount, int duration) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += latencies.get(i);
+        }
+        System.out.printf("clients=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms%n",
+                clientCount, total, errors.sum(), (double) total / duration, percentile(total, 0.50),
+                percentile(total, 0.99));
+    }
+
+    private double percentile(long total, double percentile) {
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank && seen > 0) {
+                return (i + 1) * BUCKET_NANOS / 1_000_000.0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.user.task.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.user.task.dto.response.UserResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonBenchmark {
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private List<UserResponseDto> users;
+
+    @Setup
+    public void setUp() {
+        writer = BenchmarkFixtures.objectMapper().writerFor(new TypeReference<List<UserResponseDto>>() {
+        });
+        users = BenchmarkFixtures.userResponses(size);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,28 @@
+package com.user.task.benchmark;
+
+import com.user.task.model.User;
+import com.user.task.validation.UserValidation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(1L);
+    }
+
+    @Benchmark
+    public User fullUserValidation() {
+        UserValidation.fullUserValidation(user);
+        return user;
+    }
+}
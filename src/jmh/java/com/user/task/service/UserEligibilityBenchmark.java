@@ -0,0 +1,34 @@
+package com.user.task.service;
+
+import com.user.task.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserEligibilityBenchmark {
+    private UserEligibility userEligibility;
+
+    private LocalDate birthDate;
+
+    @Setup
+    public void setUp() {
+        userEligibility = new UserEligibility(Clock.systemDefaultZone(),
+                new MockEnvironment().withProperty("register.age", "18"));
+        birthDate = BenchmarkFixtures.user(1L).getBirthDate();
+    }
+
+    @Benchmark
+    public LocalDate check() {
+        userEligibility.check(birthDate);
+        return birthDate;
+    }
+}
@@ -0,0 +1,83 @@
+package com.user.task.service.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.user.task.benchmark.BenchmarkFixtures;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective bean serialization against the {@link UserJsonComponent} serializers, for response DTOs and for
+ * entities, which the reflective path maps to DTOs first as {@code GET /users/stream} used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonComponentBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectWriter reflectiveWriter;
+
+    private ObjectWriter componentWriter;
+
+    private ObjectWriter entityWriter;
+
+    private UserMapper userMapper;
+
+    private List<UserResponseDto> users;
+
+    private List<User> entities;
+
+    @Setup
+    public void setUp() {
+        TypeReference<List<UserResponseDto>> type = new TypeReference<>() {
+        };
+        reflectiveWriter = BenchmarkFixtures.objectMapper().writerFor(type);
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper().registerModule(new SimpleModule()
+                .addSerializer(User.class, new UserJsonComponent.UserSerializer())
+                .addSerializer(UserResponseDto.class, new UserJsonComponent.UserResponseSerializer()));
+        componentWriter = objectMapper.writerFor(type);
+        entityWriter = objectMapper.writerFor(new TypeReference<List<User>>() {
+        });
+        userMapper = new UserMapper(new LocalAddressMapper());
+        users = BenchmarkFixtures.userResponses(size);
+        entities = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            entities.add(BenchmarkFixtures.user(id));
+        }
+    }
+
+    @Benchmark
+    public byte[] dtosReflective() throws JsonProcessingException {
+        return reflectiveWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] dtosComponent() throws JsonProcessingException {
+        return componentWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] entitiesMappedReflective() throws JsonProcessingException {
+        return reflectiveWriter.writeValueAsBytes(entities.stream()
+                .map(userMapper::mapToDto)
+                .toList());
+    }
+
+    @Benchmark
+    public byte[] entitiesComponent() throws JsonProcessingException {
+        return entityWriter.writeValueAsBytes(entities);
+    }
+}
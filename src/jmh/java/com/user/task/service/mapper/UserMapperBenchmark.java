@@ -0,0 +1,40 @@
+package com.user.task.service.mapper;
+
+import com.user.task.benchmark.BenchmarkFixtures;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private UserMapper userMapper;
+
+    private User user;
+
+    private UserRequestDto requestDto;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapper(new LocalAddressMapper());
+        user = BenchmarkFixtures.user(1L);
+        requestDto = BenchmarkFixtures.userRequest();
+    }
+
+    @Benchmark
+    public UserResponseDto mapToDto() {
+        return userMapper.mapToDto(user);
+    }
+
+    @Benchmark
+    public User mapToEntity() {
+        return userMapper.mapToEntity(requestDto);
+    }
+}
@@ -1,20 +1,30 @@
 package com.user.task.config;
 
-import org.springframework.context.annotation.Bean;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 
-import static java.util.Objects.*;
-
 @Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 @PropertySource("classpath:application.properties")
 @ComponentScan(basePackages = {
         "com.user.task"
 })
 public class AppConfig {
-    private static final Integer BASE_REGISTER_AGE = 0;
+    public static final String USERS_CACHE = "users";
+    private static final Integer BASE_PAGE_SIZE = 100;
+    private static final Integer BASE_MAX_PAGE_SIZE = 1000;
+    private static final Integer BASE_BATCH_CHUNK_SIZE = 1000;
+    private static final Integer BASE_UPDATE_MAX_RETRIES = 3;
+    private static final Integer BASE_CREATE_QUEUE_CAPACITY = 10_000;
+    private static final Integer BASE_CREATE_WRITERS = 1;
+    private static final String BASE_CREATE_JOURNAL = System.getProperty("java.io.tmpdir")
+            + "/user-task-creations.ndjson";
+    private static final String BASE_SNAPSHOT_DIRECTORY = System.getProperty("java.io.tmpdir") + "/user-task-snapshot";
+    private static final String BASE_SEARCH_DIRECTORY = System.getProperty("java.io.tmpdir") + "/user-task-search";
 
     private final Environment environment;
 
@@ -22,12 +32,48 @@ public class AppConfig {
         this.environment = environment;
     }
 
-    @Bean
-    public Integer getRegisterAge() {
-        String registerAge = environment.getProperty("register.age");
-        if (nonNull(registerAge)) {
-            return Integer.valueOf(registerAge);
-        }
-        return BASE_REGISTER_AGE;
+    public Integer getPageSize() {
+        return environment.getProperty("users.page.size", Integer.class, BASE_PAGE_SIZE);
+    }
+
+    public Integer getMaxPageSize() {
+        return environment.getProperty("users.page.max-size", Integer.class, BASE_MAX_PAGE_SIZE);
+    }
+
+    public Integer getBatchChunkSize() {
+        return environment.getProperty("users.batch.chunk-size", Integer.class, BASE_BATCH_CHUNK_SIZE);
+    }
+
+    public Integer getUpdateMaxRetries() {
+        return environment.getProperty("users.update.max-retries", Integer.class, BASE_UPDATE_MAX_RETRIES);
+    }
+
+    public String getSnapshotDirectory() {
+        return environment.getProperty("users.snapshot.directory", BASE_SNAPSHOT_DIRECTORY);
+    }
+
+    public String getSearchDirectory() {
+        return environment.getProperty("users.search.directory", BASE_SEARCH_DIRECTORY);
+    }
+
+    public Integer getSearchRebuildThreads() {
+        return environment.getProperty("users.search.rebuild-threads", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public boolean isCreateAsync() {
+        return environment.getProperty("users.create.async", Boolean.class, false);
+    }
+
+    public Integer getCreateQueueCapacity() {
+        return environment.getProperty("users.create.queue-capacity", Integer.class, BASE_CREATE_QUEUE_CAPACITY);
+    }
+
+    public Integer getCreateWriters() {
+        return environment.getProperty("users.create.writers", Integer.class, BASE_CREATE_WRITERS);
+    }
+
+    public String getCreateJournal() {
+        return environment.getProperty("users.create.journal", BASE_CREATE_JOURNAL);
     }
 }
@@ -0,0 +1,181 @@
+package com.user.task.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import static com.user.task.util.EncodingUtils.acceptsGzip;
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.*;
+
+/**
+ * Holds back the first bytes of a response for clients accepting gzip. A response that ends within
+ * {@code threshold} bytes goes out with its {@code Content-Length}, so the server leaves it uncompressed;
+ * a bigger one is streamed and compressed as before. Message converters flush before the length is known,
+ * without this every response would be compressed however small. Asynchronous and non-blocking writes pass
+ * straight through once they start.
+ */
+class SmallResponseFilter extends OncePerRequestFilter {
+    private final int threshold;
+
+    SmallResponseFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isNot(acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        BufferingResponse bufferingResponse = new BufferingResponse(response, threshold);
+        chain.doFilter(request, bufferingResponse);
+        if (request.isAsyncStarted()) {
+            // the body is still being written on another thread, its length isn't known
+            bufferingResponse.release();
+        } else {
+            bufferingResponse.finish();
+        }
+    }
+
+    private static class BufferingResponse extends HttpServletResponseWrapper {
+        private final int threshold;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private volatile boolean released;
+
+        BufferingResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (isNull(outputStream)) {
+                outputStream = new BufferingOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (isNull(writer)) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (released) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            buffer.reset();
+            super.reset();
+        }
+
+        synchronized void finish() throws IOException {
+            if (nonNull(writer)) {
+                writer.flush();
+            }
+            if (released || buffer.size() == 0) {
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setContentLength(buffer.size());
+            buffer.writeTo(response.getOutputStream());
+            response.flushBuffer();
+        }
+
+        /**
+         * Sends what is buffered and passes everything after it straight through.
+         */
+        synchronized void release() throws IOException {
+            if (released) {
+                return;
+            }
+            released = true;
+            buffer.writeTo(getResponse().getOutputStream());
+            buffer.reset();
+        }
+
+        private class BufferingOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                synchronized (BufferingResponse.this) {
+                    if (isNot(released) && buffer.size() + length > threshold) {
+                        release();
+                    }
+                    if (isNot(released)) {
+                        buffer.write(bytes, offset, length);
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (released) {
+                    getResponse().getOutputStream().flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                try {
+                    return isNot(released) || getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            /**
+             * Non-blocking writes go straight to the response, the buffered bytes are sent before the listener
+             * is set, while the response still blocks.
+             */
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    release();
+                    getResponse().getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
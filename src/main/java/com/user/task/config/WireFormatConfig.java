@@ -0,0 +1,42 @@
+package com.user.task.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * CBOR and Smile next to JSON, chosen by {@code Accept}. They copy the JSON mapper, so modules and features are
+ * the same in every format. Spring Boot keeps them after the JSON converter, clients accepting anything still
+ * get JSON. Responses smaller than {@code server.compression.min-response-size} are sent uncompressed.
+ */
+@Configuration
+public class WireFormatConfig {
+    private static final DataSize BASE_COMPRESSION_THRESHOLD = DataSize.ofKilobytes(2);
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<SmallResponseFilter> smallResponseFilter(Environment environment) {
+        DataSize threshold = environment.getProperty("server.compression.min-response-size", DataSize.class,
+                BASE_COMPRESSION_THRESHOLD);
+        FilterRegistrationBean<SmallResponseFilter> registration = new FilterRegistrationBean<>(
+                new SmallResponseFilter((int) threshold.toBytes()));
+        registration.addUrlPatterns("/users/*");
+        return registration;
+    }
+}
@@ -0,0 +1,53 @@
+package com.user.task.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.task.dto.response.UserAnalyticsResponseDto;
+import com.user.task.service.snapshot.UserSnapshotRange;
+import com.user.task.service.snapshot.UserSnapshotService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/users/analytics")
+@ConditionalOnProperty(name = "users.snapshot.enabled", havingValue = "true")
+public class UserAnalyticsController {
+    private final UserSnapshotService userSnapshotService;
+
+    private final ObjectMapper objectMapper;
+
+    UserAnalyticsController(UserSnapshotService userSnapshotService, ObjectMapper objectMapper) {
+        this.userSnapshotService = userSnapshotService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/count")
+    UserAnalyticsResponseDto count(@RequestParam String from, @RequestParam String to) {
+        UserSnapshotRange range = userSnapshotService.getRange(from, to);
+        return new UserAnalyticsResponseDto(range.getCount(), range.getAsOf());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    void stream(@RequestParam String from, @RequestParam String to, HttpServletResponse response)
+            throws IOException {
+        UserSnapshotRange range = userSnapshotService.getRange(from, to);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader("X-Snapshot-As-Of", range.getAsOf().toString());
+        JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream());
+        generator.writeStartArray();
+        range.forEach(user -> {
+            try {
+                generator.writeObject(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        generator.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.user.task.controller;
+
+import com.user.task.dto.request.UserBulkRequestDto;
+import com.user.task.dto.response.UserBulkResponseDto;
+import com.user.task.service.bulk.UserBulkOperation;
+import com.user.task.service.bulk.UserBulkService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/users")
+public class UserBulkController {
+    private final UserBulkService userBulkService;
+
+    UserBulkController(UserBulkService userBulkService) {
+        this.userBulkService = userBulkService;
+    }
+
+    @DeleteMapping
+    ResponseEntity<UserBulkResponseDto> deleteAll(@RequestBody UserBulkRequestDto requestDto) {
+        return accepted(userBulkService.delete(requestDto));
+    }
+
+    @PatchMapping
+    ResponseEntity<UserBulkResponseDto> patchAll(@RequestBody UserBulkRequestDto requestDto) {
+        return accepted(userBulkService.patch(requestDto));
+    }
+
+    @GetMapping("/bulk/{id}")
+    UserBulkResponseDto get(@PathVariable String id) {
+        return toDto(userBulkService.get(id));
+    }
+
+    private ResponseEntity<UserBulkResponseDto> accepted(UserBulkOperation operation) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/users/bulk/" + operation.getId()))
+                .body(toDto(operation));
+    }
+
+    private UserBulkResponseDto toDto(UserBulkOperation operation) {
+        return new UserBulkResponseDto(operation.getId(), operation.getType().name(), operation.getState().name(),
+                operation.getTotal(), operation.getProcessed(), operation.getAffected(),
+                operation.getErrorMessage());
+    }
+}
@@ -1,51 +1,277 @@
 package com.user.task.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserCreationResponseDto;
+import com.user.task.dto.response.UserPageResponseDto;
 import com.user.task.dto.response.UserResponseDto;
-import com.user.task.exception.DataProcessingException;
-import com.user.task.exception.ErrorResponse;
+import com.user.task.dto.response.UserStatsResponseDto;
+import com.user.task.model.User;
+import com.user.task.service.UserBatchService;
 import com.user.task.service.UserService;
+import com.user.task.service.UserStatsService;
+import com.user.task.service.creation.UserCreation;
+import com.user.task.service.creation.UserCreationService;
+import com.user.task.service.export.UserExportFormat;
+import com.user.task.service.export.UserExportService;
+import com.user.task.service.idempotency.IdempotencyService;
 import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.pagination.UserPage;
+import com.user.task.service.patch.UserPatchResult;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static com.user.task.service.idempotency.IdempotencyService.IDEMPOTENCY_KEY;
+import static com.user.task.util.EncodingUtils.acceptsGzip;
+import static java.util.Objects.isNull;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final UserService userService;
 
+    private final UserBatchService userBatchService;
+
+    private final UserStatsService userStatsService;
+
+    private final UserExportService userExportService;
+
+    private final UserCreationService userCreationService;
+
+    private final IdempotencyService idempotencyService;
+
     private final UserMapper userMapper;
 
-    UserController(UserService userService, UserMapper userMapper) {
+    private final ObjectMapper objectMapper;
+
+    private final CacheControl cacheControl;
+
+    UserController(UserService userService, UserBatchService userBatchService, UserStatsService userStatsService,
+                   UserExportService userExportService, UserCreationService userCreationService,
+                   IdempotencyService idempotencyService, UserMapper userMapper, ObjectMapper objectMapper,
+                   Environment environment) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userStatsService = userStatsService;
+        this.userExportService = userExportService;
+        this.userCreationService = userCreationService;
+        this.idempotencyService = idempotencyService;
         this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.cacheControl = toCacheControl(environment);
+    }
+
+    private static CacheControl toCacheControl(Environment environment) {
+        Duration maxAge = environment.getProperty("users.http-cache.max-age", Duration.class, Duration.ZERO);
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).mustRevalidate();
+        return environment.getProperty("users.http-cache.public", Boolean.class, false)
+                ? cacheControl.cachePublic()
+                : cacheControl.cachePrivate();
     }
 
     @GetMapping
-    List<UserResponseDto> getAll(@RequestParam String from, @RequestParam String to) {
-        return userService.getAll(from, to)
+    ResponseEntity<List<UserResponseDto>> getAll(@RequestParam String from, @RequestParam String to,
+                                                 NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        String eTag = UserETag.ofRange(userService.getAllETag(from, to), WireFormat.of(request),
+                acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        return conditional(eTag, request, () -> userService.getAllDtos(from, to));
+    }
+
+    @GetMapping("/page")
+    UserPageResponseDto getPage(@RequestParam String from, @RequestParam String to,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(required = false) Integer size) {
+        return toPageDto(userService.getPage(from, to, cursor, size));
+    }
+
+    @GetMapping("/eligible")
+    UserPageResponseDto getEligiblePage(@RequestParam(required = false) String asOf,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        return toPageDto(userService.getEligiblePage(asOf, cursor, size));
+    }
+
+    private UserPageResponseDto toPageDto(UserPage page) {
+        UserPageResponseDto pageDto = new UserPageResponseDto();
+        pageDto.setUsers(page.getUsers()
                 .stream()
                 .map(userMapper::mapToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+        pageDto.setNextCursor(page.getNextCursor());
+        return pageDto;
+    }
+
+    @GetMapping("/stats")
+    UserStatsResponseDto getStats(@RequestParam(defaultValue = "false") boolean fresh) {
+        return userStatsService.getStats(fresh);
+    }
+
+    @GetMapping(value = "/stream",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, WireFormat.SMILE_VALUE})
+    void stream(@RequestParam String from, @RequestParam String to, NativeWebRequest request,
+                HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        WireFormat format = WireFormat.of(request);
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        JsonGenerator generator = format.createGenerator(objectMapper, response.getOutputStream());
+        generator.writeStartArray();
+        userService.streamAll(from, to, user -> {
+            try {
+                generator.writeObject(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    @GetMapping("/export")
+    void export(@RequestParam(defaultValue = "ndjson") String format, @RequestParam(required = false) Long afterId,
+                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                HttpServletResponse response) throws IOException {
+        UserExportFormat exportFormat = UserExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=users." + exportFormat.getExtension());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER_SIZE);
+        }
+        userExportService.export(afterId, exportFormat, out);
     }
 
     @GetMapping("/{id}")
-    UserResponseDto get(@PathVariable Long id) {
-        return userMapper.mapToDto(userService.get(id));
+    ResponseEntity<UserResponseDto> get(@PathVariable Long id, NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        User user = userService.get(id);
+        return conditional(UserETag.ofUser(user.getVersion(), WireFormat.of(request)), request,
+                () -> userMapper.mapToDto(user));
+    }
+
+    /**
+     * Answers {@code 304 Not Modified} when {@code If-None-Match} holds the current {@code ETag}, before the body
+     * is read or serialized.
+     */
+    private <T> ResponseEntity<T> conditional(String responseETag, NativeWebRequest request, Supplier<T> body) {
+        if (request.checkNotModified(responseETag)) {
+            // the ETag header is already set
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(responseETag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .body(body.get());
     }
 
     @PostMapping
-    UserResponseDto create(@RequestBody UserRequestDto requestDto) {
-        return userMapper.mapToDto(userService.create(requestDto));
+    ResponseEntity<?> create(@RequestBody UserRequestDto requestDto,
+                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                             NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        WireFormat format = WireFormat.of(request);
+        if (isNull(idempotencyKey)) {
+            return createOnce(requestDto, format);
+        }
+        String fingerprint = idempotencyService.fingerprint("POST /users", requestDto);
+        return inFormat(idempotencyService.execute(idempotencyKey, fingerprint, () -> createOnce(requestDto, format)),
+                format);
+    }
+
+    /**
+     * A replay carries the {@code ETag} of the format the first response was sent in.
+     */
+    private static ResponseEntity<?> inFormat(ResponseEntity<?> response, WireFormat format) {
+        String eTag = response.getHeaders().getETag();
+        if (isNull(eTag)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setETag(UserETag.ofUser(UserETag.parseVersion(eTag), format));
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private ResponseEntity<?> createOnce(UserRequestDto requestDto, WireFormat format) {
+        if (userCreationService.isEnabled()) {
+            UserCreation creation = userCreationService.enqueue(requestDto);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/users/creations/" + creation.getTicket()))
+                    .body(toCreationDto(creation));
+        }
+        return withETag(userService.create(requestDto), format);
+    }
+
+    @GetMapping("/creations/{ticket}")
+    UserCreationResponseDto getCreation(@PathVariable String ticket) {
+        return toCreationDto(userCreationService.get(ticket));
+    }
+
+    private UserCreationResponseDto toCreationDto(UserCreation creation) {
+        return new UserCreationResponseDto(creation.getTicket(), creation.getState().name(), creation.getUserId(),
+                creation.getErrorMessage());
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    ResponseEntity<?> createAll(InputStream body,
+                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (isNull(idempotencyKey)) {
+            return ResponseEntity.ok(createAllOnce(body));
+        }
+        // the body is streamed, so a repeated key is not checked against it
+        return idempotencyService.execute(idempotencyKey, "POST /users/batch",
+                () -> ResponseEntity.ok(createAllOnce(body)));
+    }
+
+    private UserBatchResponseDto createAllOnce(InputStream body) {
+        try (MappingIterator<UserRequestDto> requests = objectMapper.readerFor(UserRequestDto.class)
+                .readValues(body)) {
+            return userBatchService.createAll(requests);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PutMapping("/{id}")
-    UserResponseDto update(@PathVariable Long id, @RequestBody UserRequestDto requestDto) {
-        return userMapper.mapToDto(userService.update(id, requestDto));
+    ResponseEntity<UserResponseDto> update(@PathVariable Long id, @RequestBody UserRequestDto requestDto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                           String ifMatch, NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        WireFormat format = WireFormat.of(request);
+        return withETag(userService.update(id, requestDto, UserETag.parseVersion(ifMatch)), format);
     }
 
     @DeleteMapping("/{id}")
@@ -54,12 +280,25 @@ public class UserController {
     }
 
     @PatchMapping("/{id}")
-    UserResponseDto patch(@PathVariable Long id, @RequestBody UserRequestDto requestDto) {
-        return userMapper.mapToDto(userService.patch(id, requestDto));
+    ResponseEntity<UserResponseDto> patch(@PathVariable Long id, @RequestBody UserRequestDto requestDto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                          String ifMatch, NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        WireFormat format = WireFormat.of(request);
+        UserPatchResult result = userService.patch(id, requestDto, UserETag.parseVersion(ifMatch));
+        if (result.isModified()) {
+            return withETag(result.getUser(), format);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(UserETag.ofUser(result.getVersion(), format))
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
     }
 
-    @ExceptionHandler(DataProcessingException.class)
-    public ResponseEntity<ErrorResponse> handleException(DataProcessingException e) {
-        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+    private ResponseEntity<UserResponseDto> withETag(User user, WireFormat format) {
+        return ResponseEntity.ok()
+                .eTag(UserETag.ofUser(user.getVersion(), format))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(userMapper.mapToDto(user));
     }
 }
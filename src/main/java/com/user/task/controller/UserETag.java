@@ -0,0 +1,53 @@
+package com.user.task.controller;
+
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.PreconditionFailedException;
+
+import static java.util.Objects.*;
+
+/**
+ * Every {@code ETag} of {@code /users}, and the versions {@code If-Match} reads back from them. A user's tag is its
+ * version plus the suffix of the format it was sent in, and it is always strong: a single user stays below the
+ * compression threshold, so a strong tag costs nothing. A tag of a date range is weak for clients accepting gzip,
+ * because the server compresses nothing that has a strong one.
+ */
+final class UserETag {
+    private UserETag() {
+    }
+
+    static String ofUser(Long version, WireFormat format) {
+        return quote(format.eTag(String.valueOf(version)));
+    }
+
+    static String ofRange(String hash, WireFormat format, boolean gzip) {
+        String eTag = quote(format.eTag(hash));
+        return gzip ? "W/" + eTag : eTag;
+    }
+
+    /**
+     * The version of a tag made by {@link #ofUser}, in any format; {@code null} for no tag or {@code *}.
+     * {@code If-Match} compares strongly, so a weak tag never matches.
+     */
+    static Long parseVersion(String ifMatch) {
+        if (isNull(ifMatch) || ifMatch.equals("*")) {
+            return null;
+        }
+        if (ifMatch.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " is weak, send the strong ETag of the user");
+        }
+        if (ifMatch.length() > 2 && ifMatch.startsWith("\"") && ifMatch.endsWith("\"")) {
+            String value = ifMatch.substring(1, ifMatch.length() - 1);
+            for (WireFormat format : WireFormat.values()) {
+                Long version = format.parseETag(value);
+                if (nonNull(version)) {
+                    return version;
+                }
+            }
+        }
+        throw new DataProcessingException("If-Match " + ifMatch + " is not valid");
+    }
+
+    private static String quote(String eTag) {
+        return "\"" + eTag + "\"";
+    }
+}
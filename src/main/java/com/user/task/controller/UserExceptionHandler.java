@@ -0,0 +1,91 @@
+package com.user.task.controller;
+
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.ErrorResponse;
+import com.user.task.exception.PreconditionFailedException;
+import com.user.task.exception.ServiceUnavailableException;
+import com.user.task.exception.TooManyRequestsException;
+import com.user.task.exception.UnprocessableEntityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import static com.user.task.util.ConstraintUtils.isEmailConstraint;
+import static com.user.task.util.ValidationUtils.isNot;
+
+/**
+ * The error responses of every {@code /users} controller, each counted in {@code users.errors} by exception and
+ * status.
+ */
+@RestControllerAdvice(assignableTypes = {UserController.class, UserBulkController.class,
+        UserSearchController.class, UserAnalyticsController.class})
+public class UserExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    UserExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(DataProcessingException.class)
+    public ResponseEntity<ErrorResponse> handleException(DataProcessingException e) {
+        return errorResponse(e, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleException(PreconditionFailedException e) {
+        return errorResponse(e, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleException(ConflictException e) {
+        return errorResponse(e, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UnprocessableEntityException.class)
+    public ResponseEntity<ErrorResponse> handleException(UnprocessableEntityException e) {
+        return errorResponse(e, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleException(ServiceUnavailableException e) {
+        return errorResponse(e, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * A concurrent write that took the same email first, caught by the unique index. Any other violation is
+     * left to the default error handling.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleException(DataIntegrityViolationException e) {
+        if (isNot(isEmailConstraint(constraintName(e)))) {
+            throw e;
+        }
+        return errorResponse(new ConflictException("User with the same email already exists"), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleException(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse(e, HttpStatus.TOO_MANY_REQUESTS).getBody());
+    }
+
+    private static String constraintName(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation) {
+            return violation.getConstraintName();
+        }
+        return null;
+    }
+
+    private ResponseEntity<ErrorResponse> errorResponse(DataProcessingException e, HttpStatus status) {
+        meterRegistry.counter("users.errors", "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), status);
+    }
+}
@@ -0,0 +1,23 @@
+package com.user.task.controller;
+
+import com.user.task.dto.response.UserSearchResponseDto;
+import com.user.task.service.search.UserSearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/users/search")
+@ConditionalOnProperty(name = "users.search.enabled", havingValue = "true")
+public class UserSearchController {
+    private final UserSearchService userSearchService;
+
+    UserSearchController(UserSearchService userSearchService) {
+        this.userSearchService = userSearchService;
+    }
+
+    @GetMapping
+    UserSearchResponseDto search(@RequestParam String q, @RequestParam(required = false) Integer page,
+                                 @RequestParam(required = false) Integer size) {
+        return userSearchService.search(q, page, size);
+    }
+}
@@ -0,0 +1,100 @@
+package com.user.task.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.isNull;
+
+/**
+ * The formats of {@code /users} responses, the same the message converters write. Responses that are written
+ * by hand or carry an {@code ETag} pick theirs here; the {@code ETag} differs per format, because a cache may
+ * only reuse a stored body for a validator of the same bytes.
+ */
+enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON, null, ""),
+    CBOR(MediaType.APPLICATION_CBOR, new CBORFactory(), "-cbor"),
+    SMILE(MediaType.valueOf(WireFormat.SMILE_VALUE), new SmileFactory(), "-smile");
+
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private static final ContentNegotiationStrategy ACCEPT = new HeaderContentNegotiationStrategy();
+
+    private final MediaType mediaType;
+
+    private final JsonFactory factory;
+
+    private final String eTagSuffix;
+
+    WireFormat(MediaType mediaType, JsonFactory factory, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    /**
+     * The first format the client accepts, by quality and specificity as Spring negotiates; JSON for anything.
+     */
+    static WireFormat of(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> accepted = new ArrayList<>(ACCEPT.resolveMediaTypes(request));
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptedType : accepted) {
+            for (WireFormat format : values()) {
+                if (acceptedType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * JSON is written by the mapper's own factory, the binary formats write the mapper's serializers with theirs.
+     */
+    JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        if (isNull(factory)) {
+            return objectMapper.createGenerator(out);
+        }
+        return factory.createGenerator(out).setCodec(objectMapper);
+    }
+
+    String eTag(String eTag) {
+        return eTag + eTagSuffix;
+    }
+
+    /**
+     * The number a tag of {@link #eTag} was made from, or {@code null} when the tag isn't one of this format.
+     */
+    Long parseETag(String eTag) {
+        if (isNot(eTag.endsWith(eTagSuffix))) {
+            return null;
+        }
+        String value = eTag.substring(0, eTag.length() - eTagSuffix.length());
+        if (value.isEmpty() || isNot(value.chars().allMatch(Character::isDigit))) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
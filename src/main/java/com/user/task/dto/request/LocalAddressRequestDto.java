@@ -12,4 +12,12 @@ public class LocalAddressRequestDto {
     public Long getHouseNumber() {
         return houseNumber;
     }
+
+    public void setStreet(String street) {
+        this.street = street;
+    }
+
+    public void setHouseNumber(Long houseNumber) {
+        this.houseNumber = houseNumber;
+    }
 }
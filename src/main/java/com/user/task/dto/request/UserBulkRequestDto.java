@@ -0,0 +1,45 @@
+package com.user.task.dto.request;
+
+import java.util.List;
+
+public class UserBulkRequestDto {
+    private List<Long> ids;
+
+    private String from;
+
+    private String to;
+
+    private UserRequestDto values;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public UserRequestDto getValues() {
+        return values;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public void setValues(UserRequestDto values) {
+        this.values = values;
+    }
+}
@@ -7,6 +7,15 @@ public class LocalAddressResponseDto {
 
     private Long houseNumber;
 
+    public LocalAddressResponseDto() {
+    }
+
+    public LocalAddressResponseDto(Long id, String street, Long houseNumber) {
+        this.id = id;
+        this.street = street;
+        this.houseNumber = houseNumber;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,33 @@
+package com.user.task.dto.response;
+
+import java.time.Instant;
+
+public class UserAnalyticsResponseDto {
+    private long count;
+
+    private Instant asOf;
+
+    public UserAnalyticsResponseDto() {
+    }
+
+    public UserAnalyticsResponseDto(long count, Instant asOf) {
+        this.count = count;
+        this.asOf = asOf;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(Instant asOf) {
+        this.asOf = asOf;
+    }
+}
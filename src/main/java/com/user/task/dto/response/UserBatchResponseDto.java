@@ -0,0 +1,49 @@
+package com.user.task.dto.response;
+
+import java.util.List;
+
+public class UserBatchResponseDto {
+    private int created;
+
+    private int failed;
+
+    private List<UserBatchResultDto> results;
+
+    public UserBatchResponseDto() {
+    }
+
+    public UserBatchResponseDto(List<UserBatchResultDto> results) {
+        this.results = results;
+        for (UserBatchResultDto result : results) {
+            if (result.getStatus() == UserBatchResultDto.Status.CREATED) {
+                created++;
+            } else {
+                failed++;
+            }
+        }
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<UserBatchResultDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<UserBatchResultDto> results) {
+        this.results = results;
+    }
+}
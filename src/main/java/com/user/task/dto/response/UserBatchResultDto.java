@@ -0,0 +1,84 @@
+package com.user.task.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class UserBatchResultDto {
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private String errorMessage;
+
+    @JsonIgnore
+    private boolean retryable;
+
+    public UserBatchResultDto() {
+    }
+
+    public UserBatchResultDto(int index, Status status, Long id, String errorMessage) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errorMessage = errorMessage;
+    }
+
+    public static UserBatchResultDto created(int index, Long id) {
+        return new UserBatchResultDto(index, Status.CREATED, id, null);
+    }
+
+    public static UserBatchResultDto failed(int index, String errorMessage) {
+        return new UserBatchResultDto(index, Status.FAILED, null, errorMessage);
+    }
+
+    /**
+     * The user wasn't saved because the database couldn't be reached, saving it again later may succeed.
+     */
+    public static UserBatchResultDto unavailable(int index, String errorMessage) {
+        UserBatchResultDto result = failed(index, errorMessage);
+        result.retryable = true;
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+}
@@ -0,0 +1,87 @@
+package com.user.task.dto.response;
+
+public class UserBulkResponseDto {
+    private String id;
+
+    private String operation;
+
+    private String status;
+
+    private Long total;
+
+    private Long processed;
+
+    private Long affected;
+
+    private String errorMessage;
+
+    public UserBulkResponseDto() {
+    }
+
+    public UserBulkResponseDto(String id, String operation, String status, Long total, Long processed,
+                               Long affected, String errorMessage) {
+        this.id = id;
+        this.operation = operation;
+        this.status = status;
+        this.total = total;
+        this.processed = processed;
+        this.affected = affected;
+        this.errorMessage = errorMessage;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getAffected() {
+        return affected;
+    }
+
+    public void setAffected(Long affected) {
+        this.affected = affected;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
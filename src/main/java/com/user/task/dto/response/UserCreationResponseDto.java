@@ -0,0 +1,53 @@
+package com.user.task.dto.response;
+
+public class UserCreationResponseDto {
+    private String ticket;
+
+    private String status;
+
+    private Long userId;
+
+    private String errorMessage;
+
+    public UserCreationResponseDto() {
+    }
+
+    public UserCreationResponseDto(String ticket, String status, Long userId, String errorMessage) {
+        this.ticket = ticket;
+        this.status = status;
+        this.userId = userId;
+        this.errorMessage = errorMessage;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,25 @@
+package com.user.task.dto.response;
+
+import java.util.List;
+
+public class UserPageResponseDto {
+    private List<UserResponseDto> users;
+
+    private String nextCursor;
+
+    public List<UserResponseDto> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserResponseDto> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -2,6 +2,8 @@ package com.user.task.dto.response;
 
 import java.time.LocalDate;
 
+import static java.util.Objects.nonNull;
+
 public class UserResponseDto {
     private Long id;
 
@@ -17,6 +19,22 @@ public class UserResponseDto {
 
     private String phoneNumber;
 
+    public UserResponseDto() {
+    }
+
+    public UserResponseDto(Long id, String email, String firstName, String lastName, LocalDate birthDate,
+                           Long addressId, String street, Long houseNumber, String phoneNumber) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.birthDate = birthDate;
+        if (nonNull(addressId)) {
+            this.address = new LocalAddressResponseDto(addressId, street, houseNumber);
+        }
+        this.phoneNumber = phoneNumber;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,44 @@
+package com.user.task.dto.response;
+
+import java.util.List;
+
+public class UserSearchResponseDto {
+    private List<UserResponseDto> users;
+
+    private long total;
+
+    private boolean totalExact;
+
+    public UserSearchResponseDto() {
+    }
+
+    public UserSearchResponseDto(List<UserResponseDto> users, long total, boolean totalExact) {
+        this.users = users;
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    public List<UserResponseDto> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserResponseDto> users) {
+        this.users = users;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+}
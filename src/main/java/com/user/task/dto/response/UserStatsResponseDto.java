@@ -0,0 +1,45 @@
+package com.user.task.dto.response;
+
+import java.util.Map;
+
+public class UserStatsResponseDto {
+    private long total;
+
+    private Map<String, Long> byBirthMonth;
+
+    private Map<String, Long> byAge;
+
+    private Map<String, Long> byStreet;
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByBirthMonth() {
+        return byBirthMonth;
+    }
+
+    public void setByBirthMonth(Map<String, Long> byBirthMonth) {
+        this.byBirthMonth = byBirthMonth;
+    }
+
+    public Map<String, Long> getByAge() {
+        return byAge;
+    }
+
+    public void setByAge(Map<String, Long> byAge) {
+        this.byAge = byAge;
+    }
+
+    public Map<String, Long> getByStreet() {
+        return byStreet;
+    }
+
+    public void setByStreet(Map<String, Long> byStreet) {
+        this.byStreet = byStreet;
+    }
+}
@@ -0,0 +1,7 @@
+package com.user.task.exception;
+
+public class ConflictException extends DataProcessingException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
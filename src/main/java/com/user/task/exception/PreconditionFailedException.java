@@ -0,0 +1,7 @@
+package com.user.task.exception;
+
+public class PreconditionFailedException extends DataProcessingException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.user.task.exception;
+
+public class ServiceUnavailableException extends DataProcessingException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
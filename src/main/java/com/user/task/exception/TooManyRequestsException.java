@@ -0,0 +1,7 @@
+package com.user.task.exception;
+
+public class TooManyRequestsException extends DataProcessingException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
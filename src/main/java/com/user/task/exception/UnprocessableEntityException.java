@@ -0,0 +1,7 @@
+package com.user.task.exception;
+
+public class UnprocessableEntityException extends DataProcessingException {
+    public UnprocessableEntityException(String message) {
+        super(message);
+    }
+}
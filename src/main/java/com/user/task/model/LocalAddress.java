@@ -4,23 +4,33 @@ import jakarta.persistence.*;
 
 import java.util.Objects;
 
+import static com.user.task.util.AddressUtils.key;
+
 @Entity
 @Table(name = "local_addresses")
 public class LocalAddress {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "local_addresses_seq")
+    @SequenceGenerator(name = "local_addresses_seq", sequenceName = "local_addresses_seq", allocationSize = 50)
     private Long id;
 
     private String street;
 
     private Long houseNumber;
 
+    /**
+     * Unique for addresses created since addresses are shared; duplicates from before keep {@code null} until
+     * they are merged.
+     */
+    private String addressKey;
+
     public LocalAddress() {
     }
 
     public LocalAddress(String street, Long houseNumber) {
         this.houseNumber = houseNumber;
         this.street = street;
+        this.addressKey = key(street, houseNumber);
     }
 
     public Long getId() {
@@ -37,6 +47,7 @@ public class LocalAddress {
 
     public void setStreet(String street) {
         this.street = street;
+        this.addressKey = key(street, houseNumber);
     }
 
     public Long getHouseNumber() {
@@ -45,6 +56,11 @@ public class LocalAddress {
 
     public void setHouseNumber(Long houseNumber) {
         this.houseNumber = houseNumber;
+        this.addressKey = key(street, houseNumber);
+    }
+
+    public String getAddressKey() {
+        return addressKey;
     }
 
     @Override
@@ -1,34 +1,45 @@
 package com.user.task.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
+import static com.user.task.util.EmailUtils.normalize;
+
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String email;
 
+    private String emailNormalized;
+
     private String firstName;
 
     private String lastName;
 
     private LocalDate birthDate;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "local_address_id")
     private LocalAddress address;
 
     private String phoneNumber;
 
+    @Version
+    private Long version;
+
     public User() {}
 
     public User(String email, String firstName, String lastName, LocalDate birthDate, String phoneNumber) {
         this.email = email;
+        this.emailNormalized = normalize(email);
         this.firstName = firstName;
         this.lastName = lastName;
         this.birthDate = birthDate;
@@ -49,6 +60,11 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalized = normalize(email);
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
     }
 
     public String getFirstName() {
@@ -91,6 +107,14 @@ public class User {
         this.phoneNumber = phoneNumber;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -101,6 +125,7 @@ public class User {
                 ", birthDate=" + birthDate +
                 ", address=" + address +
                 ", phoneNumber='" + phoneNumber + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,94 @@
+package com.user.task.repository;
+
+import com.user.task.model.LocalAddress;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.user.task.util.AddressUtils.normalizeStreet;
+
+/**
+ * Addresses shared by every user living there, one row per {@code address_key}. Runs on the connection of
+ * the surrounding transaction, so a user can reference an address inserted earlier in the same transaction.
+ */
+@Repository
+public class CanonicalAddressRepository {
+    private static final RowMapper<LocalAddress> ADDRESS_MAPPER = (row, rowNum) -> {
+        LocalAddress address = new LocalAddress(row.getString("street"), row.getObject("house_number", Long.class));
+        address.setId(row.getLong("id"));
+        return address;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    CanonicalAddressRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public List<LocalAddress> findAllByKeys(Collection<String> keys) {
+        return namedJdbcTemplate.query("SELECT id, street, house_number FROM local_addresses"
+                + " WHERE address_key IN (:keys)", Map.of("keys", keys), ADDRESS_MAPPER);
+    }
+
+    /**
+     * Inserts the addresses whose key isn't taken yet, with the street normalized like the key. A key inserted
+     * by a concurrent transaction fails the batch with a {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    public int insertAbsent(List<LocalAddress> addresses) {
+        List<Long> ids = nextIds(addresses.size());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i++) {
+            LocalAddress address = addresses.get(i);
+            rows.add(new Object[]{ids.get(i), normalizeStreet(address.getStreet()), address.getHouseNumber(),
+                    address.getAddressKey()});
+        }
+        int[] inserted = jdbcTemplate.batchUpdate("MERGE INTO local_addresses a USING (VALUES (CAST(? AS BIGINT),"
+                + " CAST(? AS VARCHAR), CAST(? AS BIGINT), CAST(? AS VARCHAR))) n (id, street, house_number,"
+                + " address_key) ON a.address_key = n.address_key WHEN NOT MATCHED THEN INSERT (id, street,"
+                + " house_number, address_key) VALUES (n.id, n.street, n.house_number, n.address_key)", rows);
+        return Arrays.stream(inserted).sum();
+    }
+
+    /**
+     * Addresses left from before they were shared, which duplicate an address with a key.
+     */
+    public List<LocalAddress> findDuplicates(int limit) {
+        return jdbcTemplate.query("SELECT id, street, house_number FROM local_addresses"
+                + " WHERE address_key IS NULL ORDER BY id LIMIT ?", ADDRESS_MAPPER, limit);
+    }
+
+    public List<Long> findUserIdsByAddressId(Long addressId) {
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE local_address_id = ?", Long.class, addressId);
+    }
+
+    /**
+     * Bumps the version of the moved users, their address id and so their {@code ETag} changes.
+     */
+    public int moveUsers(Long fromAddressId, Long toAddressId) {
+        return jdbcTemplate.update("UPDATE users SET local_address_id = ?, version = version + 1"
+                + " WHERE local_address_id = ?", toAddressId, fromAddressId);
+    }
+
+    public void delete(Long id) {
+        jdbcTemplate.update("DELETE FROM local_addresses WHERE id = ?", id);
+    }
+
+    /**
+     * The JPA application treats every sequence value it takes as the upper end of a block of 50 ids, so
+     * taking the value itself as a single id never collides with it.
+     */
+    private List<Long> nextIds(int count) {
+        return jdbcTemplate.queryForList("SELECT NEXT VALUE FOR local_addresses_seq FROM SYSTEM_RANGE(1, ?)",
+                Long.class, count);
+    }
+}
@@ -0,0 +1,66 @@
+package com.user.task.repository;
+
+import com.user.task.service.idempotency.IdempotentResponse;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Responses to idempotent requests shared by every instance on the database. A row without a status is
+ * reserved by a first request that is still running.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    IdempotencyKeyRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public Optional<IdempotentResponse> find(String key, Instant createdAfter) {
+        return jdbcTemplate.query("SELECT fingerprint, status, location, etag, body FROM idempotency_keys"
+                        + " WHERE idempotency_key = ? AND created_at > ?",
+                (row, rowNum) -> new IdempotentResponse(row.getString("fingerprint"),
+                        row.getObject("status", Integer.class), row.getString("location"), row.getString("etag"),
+                        row.getBytes("body")),
+                key, Timestamp.from(createdAfter)).stream().findFirst();
+    }
+
+    /**
+     * Takes the key unless another request holds it. A row older than {@code expiredBefore}, or still
+     * reserved since before {@code abandonedBefore}, is taken over.
+     */
+    public boolean reserve(String key, String fingerprint, Instant now, Instant expiredBefore,
+                           Instant abandonedBefore) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?"
+                        + " AND (created_at < ? OR (status IS NULL AND created_at < ?))",
+                key, Timestamp.from(expiredBefore), Timestamp.from(abandonedBefore));
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, fingerprint, created_at)"
+                    + " VALUES (?, ?, ?)", key, fingerprint, Timestamp.from(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void complete(String key, IdempotentResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, location = ?, etag = ?, body = ?"
+                        + " WHERE idempotency_key = ?",
+                response.getStatus(), response.getLocation(), response.getETag(), response.getBody(), key);
+    }
+
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status IS NULL", key);
+    }
+
+    public int deleteCreatedBefore(Instant createdBefore) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                Timestamp.from(createdBefore));
+    }
+}
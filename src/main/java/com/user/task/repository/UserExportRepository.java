@@ -0,0 +1,45 @@
+package com.user.task.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+import static java.util.Objects.*;
+
+/**
+ * Reads users with their addresses through a forward-only JDBC cursor, handing every row to the caller as it
+ * arrives instead of building entities or a result list.
+ */
+@Repository
+public class UserExportRepository {
+    private static final int FETCH_SIZE = 1000;
+    private static final String SELECT_USERS_BETWEEN = "SELECT u.id, u.email, u.first_name, u.last_name,"
+            + " u.birth_date, a.id AS address_id, a.street, a.house_number, u.phone_number"
+            + " FROM users u LEFT JOIN local_addresses a ON a.id = u.local_address_id"
+            + " WHERE u.id > ? AND u.id <= ? ORDER BY u.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void exportAfter(long afterId, RowCallbackHandler handler) {
+        exportBetween(afterId, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * Reads the users with {@code afterId < id <= toId}, so disjoint id ranges can be read in parallel.
+     */
+    public void exportBetween(long afterId, long toId, RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_USERS_BETWEEN, handler, afterId, toId);
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+        return isNull(maxId) ? 0 : maxId;
+    }
+}
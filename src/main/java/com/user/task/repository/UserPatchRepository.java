@@ -0,0 +1,11 @@
+package com.user.task.repository;
+
+import com.user.task.service.patch.UserPatch;
+
+import java.util.Collection;
+
+public interface UserPatchRepository {
+    int patch(Long id, Long expectedVersion, UserPatch patch);
+
+    int patchAll(Collection<Long> ids, UserPatch patch);
+}
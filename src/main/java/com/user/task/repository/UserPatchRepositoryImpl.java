@@ -0,0 +1,71 @@
+package com.user.task.repository;
+
+import com.user.task.model.User;
+import com.user.task.service.patch.UserField;
+import com.user.task.service.patch.UserPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.user.task.util.EmailUtils.normalize;
+import static java.util.Objects.*;
+
+class UserPatchRepositoryImpl implements UserPatchRepository {
+    private final EntityManager entityManager;
+
+    UserPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Updates only the patched columns and bumps the version in one statement. Rows where every patched column
+     * already holds the new value are left alone, so 0 means no such user, another version or nothing to change.
+     */
+    @Override
+    public int patch(Long id, Long expectedVersion, UserPatch patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        Predicate where = builder.and(builder.equal(user.get("id"), id), set(builder, update, user, patch));
+        if (nonNull(expectedVersion)) {
+            where = builder.and(where, builder.equal(user.get("version"), expectedVersion));
+        }
+        update.where(where);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * The same update for every given user, counting only the users that changed.
+     */
+    @Override
+    public int patchAll(Collection<Long> ids, UserPatch patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        update.where(builder.and(user.get("id").in(ids), set(builder, update, user, patch)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Sets the patched columns and the next version, returning the condition that any of the columns changes.
+     */
+    private static Predicate set(CriteriaBuilder builder, CriteriaUpdate<User> update, Root<User> user,
+                                 UserPatch patch) {
+        List<Predicate> changed = new ArrayList<>();
+        for (UserField field : patch.getFields()) {
+            Path<Object> column = user.get(field.getAttribute());
+            Object value = patch.getValue(field);
+            update.set(column, value);
+            changed.add(builder.or(builder.notEqual(column, value), builder.isNull(column)));
+        }
+        if (patch.contains(UserField.EMAIL)) {
+            update.set(user.get("emailNormalized"), normalize((String) patch.getValue(UserField.EMAIL)));
+        }
+        Path<Long> version = user.get("version");
+        update.set(version, builder.sum(version, 1L));
+        return builder.or(changed.toArray(Predicate[]::new));
+    }
+}
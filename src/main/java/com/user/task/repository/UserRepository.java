@@ -1,15 +1,112 @@
 package com.user.task.repository;
 
+import com.user.task.dto.response.UserResponseDto;
 import com.user.task.model.User;
+import com.user.task.service.etag.UserVersion;
+import com.user.task.service.stats.BirthDateCount;
+import com.user.task.service.stats.StreetCount;
+import com.user.task.service.stats.UserState;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    @Query("SELECT u FROM User u WHERE u.birthDate > ?1 AND u.birthDate < ?2")
+public interface UserRepository extends JpaRepository<User, Long>, UserPatchRepository {
+    @Override
+    @EntityGraph(attributePaths = "address")
+    Optional<User> findById(Long id);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = ?1")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.emailNormalized = ?1")
+    Optional<Long> findIdByEmailNormalized(String emailNormalized);
+
+    long countByEmailNormalizedNotNull();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.emailNormalized FROM User u WHERE u.emailNormalized IS NOT NULL")
+    Stream<String> streamAllNormalizedEmails();
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate > ?1 AND u.birthDate < ?2")
     List<User> findAllBetweenDates(LocalDate from, LocalDate to);
+
+    @Query("SELECT new com.user.task.dto.response.UserResponseDto(u.id, u.email, u.firstName, u.lastName,"
+            + " u.birthDate, a.id, a.street, a.houseNumber, u.phoneNumber)"
+            + " FROM User u LEFT JOIN u.address a WHERE u.birthDate > ?1 AND u.birthDate < ?2"
+            + " ORDER BY u.birthDate, u.id")
+    List<UserResponseDto> findAllDtosBetweenDates(LocalDate from, LocalDate to);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.user.task.service.etag.UserVersion(u.id, u.version) FROM User u"
+            + " WHERE u.birthDate > ?1 AND u.birthDate < ?2 ORDER BY u.birthDate, u.id")
+    Stream<UserVersion> streamVersionsBetweenDates(LocalDate from, LocalDate to);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate > ?1 AND u.birthDate < ?2"
+            + " ORDER BY u.birthDate, u.id")
+    List<User> findFirstPageBetweenDates(LocalDate from, LocalDate to, Pageable pageable);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate > ?1 AND u.birthDate < ?2"
+            + " AND (u.birthDate > ?3 OR (u.birthDate = ?3 AND u.id > ?4)) ORDER BY u.birthDate, u.id")
+    List<User> findPageBetweenDatesAfter(LocalDate from, LocalDate to, LocalDate lastBirthDate, Long lastId,
+                                         Pageable pageable);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate <= ?1 ORDER BY u.birthDate, u.id")
+    List<User> findFirstPageBornUpTo(LocalDate cutoff, Pageable pageable);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate <= ?1"
+            + " AND (u.birthDate > ?2 OR (u.birthDate = ?2 AND u.id > ?3)) ORDER BY u.birthDate, u.id")
+    List<User> findPageBornUpToAfter(LocalDate cutoff, LocalDate lastBirthDate, Long lastId, Pageable pageable);
+
+    @Query("SELECT new com.user.task.dto.response.UserResponseDto(u.id, u.email, u.firstName, u.lastName,"
+            + " u.birthDate, a.id, a.street, a.houseNumber, u.phoneNumber)"
+            + " FROM User u LEFT JOIN u.address a WHERE u.id IN ?1 AND u.birthDate IS NOT NULL")
+    List<UserResponseDto> findAllDtosByIds(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.user.task.dto.response.UserResponseDto(u.id, u.email, u.firstName, u.lastName,"
+            + " u.birthDate, a.id, a.street, a.houseNumber, u.phoneNumber)"
+            + " FROM User u LEFT JOIN u.address a WHERE u.birthDate IS NOT NULL ORDER BY u.birthDate, u.id")
+    Stream<UserResponseDto> streamAllDtos();
+
+    @Query("SELECT new com.user.task.service.stats.BirthDateCount(u.birthDate, COUNT(u)) FROM User u"
+            + " GROUP BY u.birthDate")
+    List<BirthDateCount> countGroupedByBirthDate();
+
+    @Query("SELECT new com.user.task.service.stats.StreetCount(a.street, COUNT(u)) FROM User u JOIN u.address a"
+            + " GROUP BY a.street")
+    List<StreetCount> countGroupedByStreet();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.address WHERE u.birthDate > ?1 AND u.birthDate < ?2"
+            + " ORDER BY u.birthDate, u.id")
+    Stream<User> streamAllBetweenDates(LocalDate from, LocalDate to);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.birthDate > ?1 AND u.birthDate < ?2")
+    long countBetweenDates(LocalDate from, LocalDate to);
+
+    @Query("SELECT u.id FROM User u WHERE u.birthDate > ?1 AND u.birthDate < ?2 AND u.id > ?3 ORDER BY u.id")
+    List<Long> findIdsBetweenDatesAfter(LocalDate from, LocalDate to, Long afterId, Pageable limit);
+
+    @Query("SELECT new com.user.task.service.stats.UserState(u.id, u.birthDate, a.street) FROM User u"
+            + " LEFT JOIN u.address a WHERE u.id IN ?1")
+    List<UserState> findStatesByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN ?1")
+    int deleteByIdIn(Collection<Long> ids);
 }
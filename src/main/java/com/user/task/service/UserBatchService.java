@@ -0,0 +1,157 @@
+package com.user.task.service;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+@Service
+@Timed(value = "users.service", histogram = true)
+public class UserBatchService {
+    private final UserRepository userRepository;
+    private final LocalAddressStore localAddressStore;
+    private final UserMapper userMapper;
+    private final AppConfig appConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEligibility userEligibility;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailFilter emailFilter;
+
+    UserBatchService(UserRepository userRepository, LocalAddressStore localAddressStore,
+                     UserMapper userMapper, AppConfig appConfig, PlatformTransactionManager transactionManager,
+                     UserEligibility userEligibility, ApplicationEventPublisher eventPublisher,
+                     EmailFilter emailFilter) {
+        this.userRepository = userRepository;
+        this.localAddressStore = localAddressStore;
+        this.userMapper = userMapper;
+        this.appConfig = appConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userEligibility = userEligibility;
+        this.eventPublisher = eventPublisher;
+        this.emailFilter = emailFilter;
+    }
+
+    public UserBatchResponseDto createAll(Iterator<UserRequestDto> requests) {
+        Integer chunkSize = appConfig.getBatchChunkSize();
+        List<UserBatchResultDto> results = new ArrayList<>();
+        Map<Integer, User> chunk = new LinkedHashMap<>();
+        Set<String> chunkEmails = new HashSet<>();
+        int index = 0;
+        while (hasNext(requests, index, results)) {
+            try {
+                UserRequestDto requestDto = next(requests);
+                chunk.put(index, mapToValidUser(requestDto, chunkEmails));
+            } catch (DataProcessingException e) {
+                results.add(UserBatchResultDto.failed(index, e.getMessage()));
+            }
+            index++;
+            if (chunk.size() == chunkSize) {
+                saveChunk(chunk, results);
+                chunk.clear();
+                chunkEmails.clear();
+            }
+        }
+        saveChunk(chunk, results);
+        results.sort(Comparator.comparingInt(UserBatchResultDto::getIndex));
+        return new UserBatchResponseDto(results);
+    }
+
+    private boolean hasNext(Iterator<UserRequestDto> requests, int index, List<UserBatchResultDto> results) {
+        try {
+            return requests.hasNext();
+        } catch (RuntimeException e) {
+            results.add(UserBatchResultDto.failed(index, "Record can't be read, the rest of the batch is skipped"));
+            return false;
+        }
+    }
+
+    private UserRequestDto next(Iterator<UserRequestDto> requests) {
+        try {
+            return requests.next();
+        } catch (RuntimeException e) {
+            throw new DataProcessingException("Record can't be read", e);
+        }
+    }
+
+    /**
+     * Emails saved by earlier chunks are found by the email filter, so only the current chunk has to be
+     * checked for repeats.
+     */
+    private User mapToValidUser(UserRequestDto requestDto, Set<String> chunkEmails) {
+        if (isNull(requestDto)) {
+            throw new DataProcessingException("Record can't be empty");
+        }
+        User user = userMapper.mapToEntity(requestDto);
+        fullUserValidation(user);
+        userEligibility.check(user.getBirthDate());
+        emailFilter.checkAvailable(user.getEmail(), null);
+        if (isNot(chunkEmails.add(user.getEmailNormalized()))) {
+            throw new ConflictException("User with email " + user.getEmail() + " is already in the batch");
+        }
+        return user;
+    }
+
+    private void saveChunk(Map<Integer, User> chunk, List<UserBatchResultDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveAll(chunk.values()));
+            chunk.forEach((index, user) -> results.add(UserBatchResultDto.created(index, user.getId())));
+        } catch (RuntimeException e) {
+            chunk.forEach((index, user) -> results.add(saveOne(index, user)));
+        }
+    }
+
+    private void saveAll(Collection<User> users) {
+        List<LocalAddress> addresses = users.stream()
+                .map(User::getAddress)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, LocalAddress> interned = localAddressStore.internAll(addresses);
+        users.stream()
+                .filter(user -> nonNull(user.getAddress()))
+                .forEach(user -> user.setAddress(interned.get(user.getAddress().getAddressKey())));
+        userRepository.saveAll(users);
+        users.forEach(user -> emailFilter.put(user.getEmail()));
+        users.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.created(UserState.of(user))));
+    }
+
+    private UserBatchResultDto saveOne(Integer index, User user) {
+        // the id and version taken in the rolled back chunk, with either left the user would be merged as
+        // an existing one and keep no id; the address is interned again by its key
+        user.setId(null);
+        user.setVersion(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveAll(List.of(user)));
+            return UserBatchResultDto.created(index, user.getId());
+        } catch (DataIntegrityViolationException | DataProcessingException e) {
+            return UserBatchResultDto.failed(index, "User with email " + user.getEmail() + " can't be saved");
+        } catch (RuntimeException e) {
+            return UserBatchResultDto.unavailable(index, "User with email " + user.getEmail()
+                    + " can't be saved right now");
+        }
+    }
+}
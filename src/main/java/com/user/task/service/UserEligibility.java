@@ -0,0 +1,71 @@
+package com.user.task.service;
+
+import com.user.task.exception.DataProcessingException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+@Component
+public class UserEligibility {
+    private static final int BASE_REGISTER_AGE = 0;
+
+    private final Clock clock;
+
+    private final int registerAge;
+
+    private volatile Cutoff cutoff;
+
+    UserEligibility(Clock clock, Environment environment) {
+        this.clock = clock;
+        this.registerAge = environment.getProperty("register.age", Integer.class, BASE_REGISTER_AGE);
+        this.cutoff = Cutoff.of(clock, registerAge);
+    }
+
+    public void check(LocalDate birthDate) {
+        if (birthDate.toEpochDay() > cutoffEpochDay()) {
+            throw new DataProcessingException("User must be older than " + registerAge + " years old");
+        }
+    }
+
+    public LocalDate cutoffDate(LocalDate asOf) {
+        return asOf.minusYears(registerAge);
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private long cutoffEpochDay() {
+        Cutoff current = cutoff;
+        if (clock.millis() >= current.validUntil) {
+            current = Cutoff.of(clock, registerAge);
+            cutoff = current;
+        }
+        return current.epochDay;
+    }
+
+    /**
+     * The latest birth date old enough to register, valid until the next midnight of the clock's zone.
+     */
+    private static final class Cutoff {
+        private final long epochDay;
+
+        private final long validUntil;
+
+        private Cutoff(long epochDay, long validUntil) {
+            this.epochDay = epochDay;
+            this.validUntil = validUntil;
+        }
+
+        private static Cutoff of(Clock clock, int registerAge) {
+            LocalDate today = LocalDate.now(clock);
+            long nextMidnight = today.plusDays(1)
+                    .atStartOfDay(clock.getZone())
+                    .toInstant()
+                    .toEpochMilli();
+            return new Cutoff(today.minusYears(registerAge).toEpochDay(), nextMidnight);
+        }
+    }
+}
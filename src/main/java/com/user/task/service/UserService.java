@@ -3,81 +3,211 @@ package com.user.task.service;
 import com.user.task.config.AppConfig;
 import com.user.task.dto.request.LocalAddressRequestDto;
 import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ConflictException;
 import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.PreconditionFailedException;
 import com.user.task.model.LocalAddress;
 import com.user.task.model.User;
-import com.user.task.repository.LocalAddressRepository;
 import com.user.task.repository.UserRepository;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.etag.UserVersion;
 import com.user.task.service.mapper.LocalAddressMapper;
 import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.pagination.UserCursor;
+import com.user.task.service.pagination.UserPage;
+import com.user.task.service.patch.UserField;
+import com.user.task.service.patch.UserPatch;
+import com.user.task.service.patch.UserPatchResult;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static com.user.task.config.AppConfig.USERS_CACHE;
+import static com.user.task.util.EmailUtils.normalize;
 import static com.user.task.util.ValidationUtils.isNot;
 import static com.user.task.validation.UserValidation.*;
 import static java.util.Objects.*;
 
 @Service
+@Timed(value = "users.service", histogram = true)
 public class UserService {
+    private static final String ETAG_ALGORITHM = "SHA-256";
+    private static final int ETAG_BYTES = 16;
+
     private final UserRepository userRepository;
-    private final LocalAddressRepository localAddressRepository;
+    private final LocalAddressStore localAddressStore;
     private final LocalAddressMapper localAddressMapper;
     private final UserMapper userMapper;
     private final AppConfig appConfig;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEligibility userEligibility;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailFilter emailFilter;
 
-    UserService(UserRepository userRepository, LocalAddressRepository localAddressRepository,
-                LocalAddressMapper localAddressMapper, UserMapper userMapper, AppConfig appConfig) {
+    UserService(UserRepository userRepository, LocalAddressStore localAddressStore,
+                LocalAddressMapper localAddressMapper, UserMapper userMapper, AppConfig appConfig,
+                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                UserEligibility userEligibility, ApplicationEventPublisher eventPublisher,
+                EmailFilter emailFilter) {
         this.userRepository = userRepository;
-        this.localAddressRepository = localAddressRepository;
+        this.localAddressStore = localAddressStore;
         this.localAddressMapper = localAddressMapper;
         this.userMapper = userMapper;
         this.appConfig = appConfig;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userEligibility = userEligibility;
+        this.eventPublisher = eventPublisher;
+        this.emailFilter = emailFilter;
     }
 
+    @Transactional
     public User create(UserRequestDto requestDto) {
         User newUser = userMapper.mapToEntity(requestDto);
         fullUserValidation(newUser);
         checkRegisterAge(newUser.getBirthDate());
+        emailFilter.checkAvailable(newUser.getEmail(), null);
         checkNewUserAddress(newUser, requestDto.getAddress());
-        return userRepository.save(newUser);
+        User savedUser = userRepository.save(newUser);
+        emailFilter.put(newUser.getEmail());
+        eventPublisher.publishEvent(UserChangedEvent.created(UserState.of(newUser)));
+        return savedUser;
     }
 
     private void checkNewUserAddress(User newUser, LocalAddressRequestDto address) {
         if (nonNull(address)) {
-            LocalAddress savedAddress = localAddressRepository.save(localAddressMapper.mapToEntity(address));
-            newUser.setAddress(savedAddress);
+            newUser.setAddress(localAddressStore.intern(localAddressMapper.mapToEntity(address)));
         }
     }
 
     private void checkRegisterAge(LocalDate birthDate) {
-        Integer userAge = countUserAge(birthDate);
-        Integer registerAge = appConfig.getRegisterAge();
-        if (userAge < registerAge) {
-            throw new DataProcessingException("User must be older than " + registerAge + " years old");
+        userEligibility.check(birthDate);
+    }
+
+    public List<User> getAll(String from, String to) {
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        dateRangeValidation(fromDate, toDate);
+        return userRepository.findAllBetweenDates(fromDate, toDate);
+    }
+
+    public List<UserResponseDto> getAllDtos(String from, String to) {
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        dateRangeValidation(fromDate, toDate);
+        return userRepository.findAllDtosBetweenDates(fromDate, toDate);
+    }
+
+    /**
+     * A strong validator of {@link #getAllDtos}: a digest of the ids and versions of the users in the range, in
+     * the order of the response. Every write bumps the version, so a user created, changed, moved into or out of
+     * the range or deleted changes it.
+     */
+    @Transactional(readOnly = true)
+    public String getAllETag(String from, String to) {
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        dateRangeValidation(fromDate, toDate);
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        try (Stream<UserVersion> versions = userRepository.streamVersionsBetweenDates(fromDate, toDate)) {
+            versions.forEach(version -> digest.update(buffer.clear()
+                    .putLong(version.getId())
+                    .putLong(version.getVersion())
+                    .flip()));
         }
+        return HexFormat.of().formatHex(digest.digest(), 0, ETAG_BYTES);
     }
 
-    private Integer countUserAge(LocalDate birthDate) {
-        LocalDate now = LocalDate.now();
-        Integer count = now.getYear() - birthDate.getYear();
-        if (now.getMonth().getValue() < birthDate.getMonth().getValue()) {
-            count--;
-        } else if (now.getMonth().getValue() == birthDate.getMonth().getValue()
-                && now.getDayOfMonth() < birthDate.getDayOfMonth()) {
-            count--;
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ETAG_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return count;
     }
 
-    public List<User> getAll(String from, String to) {
+    public UserPage getPage(String from, String to, String cursor, Integer size) {
         LocalDate fromDate = LocalDate.parse(from);
         LocalDate toDate = LocalDate.parse(to);
         dateRangeValidation(fromDate, toDate);
-        return userRepository.findAllBetweenDates(fromDate, toDate);
+        Integer pageSize = isNull(size) ? appConfig.getPageSize() : size;
+        pageSizeValidation(pageSize, appConfig.getMaxPageSize());
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<User> users = isNull(cursor)
+                ? userRepository.findFirstPageBetweenDates(fromDate, toDate, limit)
+                : findPageAfter(fromDate, toDate, UserCursor.decode(cursor), limit);
+        return toPage(users, pageSize);
+    }
+
+    private UserPage toPage(List<User> users, Integer pageSize) {
+        if (users.size() > pageSize) {
+            List<User> page = users.subList(0, pageSize);
+            return new UserPage(page, UserCursor.of(page.get(pageSize - 1)).encode());
+        }
+        return new UserPage(users, null);
+    }
+
+    private List<User> findPageAfter(LocalDate fromDate, LocalDate toDate, UserCursor cursor, Pageable limit) {
+        return userRepository.findPageBetweenDatesAfter(fromDate, toDate, cursor.getBirthDate(), cursor.getId(),
+                limit);
+    }
+
+    public UserPage getEligiblePage(String asOf, String cursor, Integer size) {
+        LocalDate asOfDate = isNull(asOf) ? userEligibility.today() : LocalDate.parse(asOf);
+        LocalDate cutoff = userEligibility.cutoffDate(asOfDate);
+        Integer pageSize = isNull(size) ? appConfig.getPageSize() : size;
+        pageSizeValidation(pageSize, appConfig.getMaxPageSize());
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<User> users = isNull(cursor)
+                ? userRepository.findFirstPageBornUpTo(cutoff, limit)
+                : findEligiblePageAfter(cutoff, UserCursor.decode(cursor), limit);
+        return toPage(users, pageSize);
+    }
+
+    private List<User> findEligiblePageAfter(LocalDate cutoff, UserCursor cursor, Pageable limit) {
+        return userRepository.findPageBornUpToAfter(cutoff, cursor.getBirthDate(), cursor.getId(), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(String from, String to, Consumer<User> consumer) {
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        dateRangeValidation(fromDate, toDate);
+        try (Stream<User> users = userRepository.streamAllBetweenDates(fromDate, toDate)) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.clear();
+            });
+        }
     }
 
+    @Cacheable(cacheNames = USERS_CACHE, key = "#id")
     public User get(Long id) {
         return getSavedUser(id);
     }
@@ -87,12 +217,59 @@ public class UserService {
                 .orElseThrow(() -> new DataProcessingException("There is no such user with id " + id));
     }
 
-    public User update(Long id, UserRequestDto requestDto) {
+    @CachePut(cacheNames = USERS_CACHE, key = "#id")
+    public User update(Long id, UserRequestDto requestDto, Long expectedVersion) {
         User user = userMapper.mapToEntity(requestDto);
         fullUserValidation(user);
         checkRegisterAge(user.getBirthDate());
-        User oldUser = getSavedUser(id);
-        return userRepository.save(updateUserFields(oldUser, user));
+        return withRetry(id, () -> {
+            User oldUser = getSavedUser(id, expectedVersion);
+            UserState before = UserState.of(oldUser);
+            checkEmailChange(oldUser, user.getEmail());
+            User savedUser = userRepository.save(updateUserFields(oldUser, user));
+            eventPublisher.publishEvent(new UserChangedEvent(before, UserState.of(oldUser)));
+            return savedUser;
+        });
+    }
+
+    private void checkEmailChange(User oldUser, String email) {
+        if (nonNull(email) && isNot(normalize(email).equals(oldUser.getEmailNormalized()))) {
+            emailFilter.checkAvailable(email, oldUser.getId());
+            emailFilter.put(email);
+        }
+    }
+
+    private User getSavedUser(Long id, Long expectedVersion) {
+        User user = getSavedUser(id);
+        checkVersion(id, user.getVersion(), expectedVersion);
+        return user;
+    }
+
+    private Long getSavedVersion(Long id, Long expectedVersion) {
+        Long version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new DataProcessingException("There is no such user with id " + id));
+        checkVersion(id, version, expectedVersion);
+        return version;
+    }
+
+    private void checkVersion(Long id, Long version, Long expectedVersion) {
+        if (nonNull(expectedVersion) && isNot(expectedVersion.equals(version))) {
+            throw new PreconditionFailedException("User with id " + id + " has version " + version
+                    + ", not " + expectedVersion);
+        }
+    }
+
+    private <T> T withRetry(Long id, Supplier<T> action) {
+        int attempts = appConfig.getUpdateMaxRetries() + 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    throw new ConflictException("User with id " + id + " was modified concurrently, try again");
+                }
+            }
+        }
     }
 
     private User updateUserFields(User oldUser, User newUser) {
@@ -100,36 +277,78 @@ public class UserService {
         oldUser.setFirstName(newUser.getFirstName());
         oldUser.setLastName(newUser.getLastName());
         oldUser.setBirthDate(newUser.getBirthDate());
-        if (nonNull(newUser.getAddress()) && isNot(newUser.getAddress().equals(oldUser.getAddress()))) {
-            LocalAddress address = new LocalAddress();
-            address.setStreet(newUser.getAddress().getStreet());
-            address.setHouseNumber(newUser.getAddress().getHouseNumber());
-            oldUser.setAddress(localAddressRepository.save(address));
-        }
+        updateAddress(oldUser, newUser.getAddress());
         oldUser.setPhoneNumber(newUser.getPhoneNumber());
         return oldUser;
     }
 
+    private void updateAddress(User oldUser, LocalAddress newAddress) {
+        if (isNull(newAddress) || newAddress.equals(oldUser.getAddress())) {
+            return;
+        }
+        // the address row is shared, so the user moves to the one of the new address instead of changing it
+        oldUser.setAddress(localAddressStore.intern(newAddress));
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
     public User delete(Long id) {
         User user = getSavedUser(id);
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(UserState.of(user)));
         return user;
     }
 
-    public User patch(Long id, UserRequestDto requestDto) {
-        User oldUser = getSavedUser(id);
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
+    public UserPatchResult patch(Long id, UserRequestDto requestDto, Long expectedVersion) {
         User newUser = userMapper.mapToEntity(requestDto);
-        patchEmail(oldUser, newUser);
-        patchName(oldUser, newUser);
-        patchBirthDate(oldUser, newUser);
-        patchAddress(oldUser, newUser);
-        patchPhoneNumber(oldUser, newUser);
-        return userRepository.save(oldUser);
+        patchValidation(newUser);
+        if (nonNull(newUser.getBirthDate())) {
+            checkRegisterAge(newUser.getBirthDate());
+        }
+        UserPatch patch = UserPatch.of(newUser);
+        if (patch.contains(UserField.ADDRESS) || patch.contains(UserField.BIRTH_DATE)) {
+            return patchLoaded(id, patch, newUser, expectedVersion);
+        }
+        if (patch.contains(UserField.EMAIL)) {
+            emailFilter.checkAvailable(newUser.getEmail(), id);
+            emailFilter.put(newUser.getEmail());
+        }
+        return transactionTemplate.execute(status -> patchInPlace(id, patch, expectedVersion));
+    }
+
+    private UserPatchResult patchInPlace(Long id, UserPatch patch, Long expectedVersion) {
+        if (patch.isEmpty() || userRepository.patch(id, expectedVersion, patch) == 0) {
+            return UserPatchResult.notModified(getSavedVersion(id, expectedVersion));
+        }
+        User savedUser = getSavedUser(id);
+        // birth date and street are never patched in place, only the listeners keyed by user id see a change
+        UserState state = UserState.of(savedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(state, state));
+        return UserPatchResult.modified(savedUser);
+    }
+
+    private UserPatchResult patchLoaded(Long id, UserPatch patch, User newUser, Long expectedVersion) {
+        return withRetry(id, () -> {
+            User oldUser = getSavedUser(id, expectedVersion);
+            if (patch.changedFields(oldUser).isEmpty()) {
+                return UserPatchResult.notModified(oldUser.getVersion());
+            }
+            UserState before = UserState.of(oldUser);
+            checkEmailChange(oldUser, newUser.getEmail());
+            patchEmail(oldUser, newUser);
+            patchName(oldUser, newUser);
+            patchBirthDate(oldUser, newUser);
+            updateAddress(oldUser, newUser.getAddress());
+            patchPhoneNumber(oldUser, newUser);
+            User savedUser = userRepository.save(oldUser);
+            eventPublisher.publishEvent(new UserChangedEvent(before, UserState.of(oldUser)));
+            return UserPatchResult.modified(savedUser);
+        });
     }
 
     private void patchEmail(User oldUser, User newUser) {
         if (nonNull(newUser.getEmail())) {
-            emailValidation(newUser.getEmail());
             oldUser.setEmail(newUser.getEmail());
         }
     }
@@ -145,23 +364,10 @@ public class UserService {
 
     private void patchBirthDate(User oldUser, User newUser) {
         if (nonNull(newUser.getBirthDate())) {
-            birthDateValidation(newUser.getBirthDate());
-            checkRegisterAge(newUser.getBirthDate());
             oldUser.setBirthDate(newUser.getBirthDate());
         }
     }
 
-    private void patchAddress(User oldUser, User newUser) {
-        if (nonNull(newUser.getAddress())
-                && isNot(newUser.getAddress().equals(oldUser.getAddress()))) {
-            LocalAddress address = new LocalAddress();
-            address.setStreet(newUser.getAddress().getStreet());
-            address.setHouseNumber(newUser.getAddress().getHouseNumber());
-            oldUser.setAddress(localAddressRepository.save(address));
-
-        }
-    }
-
     private void patchPhoneNumber(User oldUser, User newUser) {
         if (nonNull(newUser.getPhoneNumber())) {
             oldUser.setPhoneNumber(newUser.getPhoneNumber());
@@ -0,0 +1,85 @@
+package com.user.task.service;
+
+import com.user.task.dto.response.UserStatsResponseDto;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.stats.BirthDateCount;
+import com.user.task.service.stats.StreetCount;
+import com.user.task.service.stats.UserStatsRollup;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static java.util.Objects.*;
+
+@Service
+@Timed(value = "users.service", histogram = true)
+public class UserStatsService {
+    private static final int[] AGE_BOUNDS = {18, 25, 35, 45, 55, 65};
+
+    private final UserRepository userRepository;
+    private final UserStatsRollup userStatsRollup;
+    private final UserEligibility userEligibility;
+
+    UserStatsService(UserRepository userRepository, UserStatsRollup userStatsRollup,
+                     UserEligibility userEligibility) {
+        this.userRepository = userRepository;
+        this.userStatsRollup = userStatsRollup;
+        this.userEligibility = userEligibility;
+    }
+
+    public UserStatsResponseDto getStats(boolean fresh) {
+        if (fresh) {
+            NavigableMap<LocalDate, Long> byBirthDate = new TreeMap<>();
+            for (BirthDateCount count : userRepository.countGroupedByBirthDate()) {
+                byBirthDate.put(count.getBirthDate(), count.getCount());
+            }
+            Map<String, Long> byStreet = new HashMap<>();
+            for (StreetCount count : userRepository.countGroupedByStreet()) {
+                if (nonNull(count.getStreet())) {
+                    byStreet.put(count.getStreet(), count.getCount());
+                }
+            }
+            return toStats(byBirthDate, byStreet);
+        }
+        return toStats(userStatsRollup.getByBirthDate(), userStatsRollup.getByStreet());
+    }
+
+    private UserStatsResponseDto toStats(NavigableMap<LocalDate, Long> byBirthDate, Map<String, Long> byStreet) {
+        UserStatsResponseDto stats = new UserStatsResponseDto();
+        Map<String, Long> byBirthMonth = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<LocalDate, Long> count : byBirthDate.entrySet()) {
+            byBirthMonth.merge(YearMonth.from(count.getKey()).toString(), count.getValue(), Long::sum);
+            total += count.getValue();
+        }
+        stats.setTotal(total);
+        stats.setByBirthMonth(byBirthMonth);
+        stats.setByAge(countByAge(byBirthDate));
+        stats.setByStreet(new TreeMap<>(byStreet));
+        return stats;
+    }
+
+    private Map<String, Long> countByAge(NavigableMap<LocalDate, Long> byBirthDate) {
+        LocalDate today = userEligibility.today();
+        Map<String, Long> byAge = new LinkedHashMap<>();
+        int from = 0;
+        for (int to : AGE_BOUNDS) {
+            byAge.put(from + "-" + (to - 1), sum(byBirthDate.subMap(today.minusYears(to), false,
+                    today.minusYears(from), true)));
+            from = to;
+        }
+        byAge.put(from + "+", sum(byBirthDate.headMap(today.minusYears(from), true)));
+        return byAge;
+    }
+
+    private long sum(Map<LocalDate, Long> counts) {
+        long sum = 0;
+        for (Long count : counts.values()) {
+            sum += count;
+        }
+        return sum;
+    }
+}
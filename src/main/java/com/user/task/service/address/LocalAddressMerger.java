@@ -0,0 +1,95 @@
+package com.user.task.service.address;
+
+import com.user.task.model.LocalAddress;
+import com.user.task.repository.CanonicalAddressRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.user.task.config.AppConfig.USERS_CACHE;
+import static java.util.Objects.*;
+
+/**
+ * Merges the addresses stored once per user before addresses were shared: the users of every address without
+ * a key move to the shared row of their address and the duplicate is deleted. Runs in batches of
+ * {@code users.address-merge.batch-size} addresses per transaction until none are left.
+ */
+@Component
+public class LocalAddressMerger {
+    private static final int BASE_BATCH_SIZE = 500;
+
+    private final CanonicalAddressRepository canonicalAddressRepository;
+    private final LocalAddressStore localAddressStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final int batchSize;
+    private final Counter merged;
+
+    LocalAddressMerger(CanonicalAddressRepository canonicalAddressRepository, LocalAddressStore localAddressStore,
+                       PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                       CacheManager cacheManager, Environment environment, MeterRegistry meterRegistry) {
+        this.canonicalAddressRepository = canonicalAddressRepository;
+        this.localAddressStore = localAddressStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.batchSize = environment.getProperty("users.address-merge.batch-size", Integer.class, BASE_BATCH_SIZE);
+        this.merged = meterRegistry.counter("users.addresses.merged");
+    }
+
+    @Scheduled(fixedDelayString = "${users.address-merge.interval:PT10M}")
+    public synchronized int merge() {
+        int total = 0;
+        int count;
+        do {
+            List<Long> movedUserIds = new ArrayList<>();
+            count = transactionTemplate.execute(status -> mergeBatch(movedUserIds));
+            evictUsers(movedUserIds);
+            total += count;
+        } while (count == batchSize);
+        return total;
+    }
+
+    private int mergeBatch(List<Long> movedUserIds) {
+        List<LocalAddress> duplicates = canonicalAddressRepository.findDuplicates(batchSize);
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+        Map<String, LocalAddress> shared = localAddressStore.internAll(duplicates);
+        for (LocalAddress duplicate : duplicates) {
+            LocalAddress address = shared.get(duplicate.getAddressKey());
+            List<Long> userIds = canonicalAddressRepository.findUserIdsByAddressId(duplicate.getId());
+            canonicalAddressRepository.moveUsers(duplicate.getId(), address.getId());
+            canonicalAddressRepository.delete(duplicate.getId());
+            for (Long userId : userIds) {
+                // the birth date stays, only the street may differ in its spaces
+                eventPublisher.publishEvent(new UserChangedEvent(new UserState(userId, null, duplicate.getStreet()),
+                        new UserState(userId, null, address.getStreet())));
+            }
+            movedUserIds.addAll(userIds);
+        }
+        merged.increment(duplicates.size());
+        return duplicates.size();
+    }
+
+    private void evictUsers(List<Long> userIds) {
+        Cache users = cacheManager.getCache(USERS_CACHE);
+        if (nonNull(users)) {
+            userIds.forEach(users::evict);
+        }
+    }
+}
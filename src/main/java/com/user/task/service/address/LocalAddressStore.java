@@ -0,0 +1,115 @@
+package com.user.task.service.address;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.user.task.model.LocalAddress;
+import com.user.task.repository.CanonicalAddressRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.*;
+
+/**
+ * Interns addresses: users at the same street and house number share one {@code local_addresses} row. Rows are
+ * found by their normalized key, first in a bounded cache of committed rows, then in the database, and only
+ * the missing ones are inserted. The returned addresses are detached copies, a user referencing one never
+ * writes to the shared row.
+ */
+@Component
+public class LocalAddressStore {
+    private static final long BASE_CACHE_SIZE = 100_000;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final CanonicalAddressRepository canonicalAddressRepository;
+    private final Cache<String, LocalAddress> addresses;
+    private final Counter inserted;
+
+    LocalAddressStore(CanonicalAddressRepository canonicalAddressRepository, Environment environment,
+                      MeterRegistry meterRegistry) {
+        this.canonicalAddressRepository = canonicalAddressRepository;
+        this.addresses = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("users.address-cache.max-size", Long.class, BASE_CACHE_SIZE))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, addresses, "addresses");
+        this.inserted = meterRegistry.counter("users.addresses.inserted");
+    }
+
+    public LocalAddress intern(LocalAddress address) {
+        if (isNull(address)) {
+            return null;
+        }
+        return internAll(List.of(address)).get(address.getAddressKey());
+    }
+
+    /**
+     * Returns the shared address for the key of every given address.
+     */
+    public Map<String, LocalAddress> internAll(Collection<LocalAddress> requested) {
+        Map<String, LocalAddress> byKey = new HashMap<>();
+        Map<String, LocalAddress> missing = new LinkedHashMap<>();
+        for (LocalAddress address : requested) {
+            LocalAddress cached = addresses.getIfPresent(address.getAddressKey());
+            if (nonNull(cached)) {
+                byKey.put(address.getAddressKey(), copy(cached));
+            } else {
+                missing.putIfAbsent(address.getAddressKey(), address);
+            }
+        }
+        for (int attempt = 1; isNot(missing.isEmpty()); attempt++) {
+            List<LocalAddress> found = canonicalAddressRepository.findAllByKeys(missing.keySet());
+            for (LocalAddress address : found) {
+                byKey.put(address.getAddressKey(), address);
+                missing.remove(address.getAddressKey());
+            }
+            cacheAfterCommit(found);
+            if (missing.isEmpty()) {
+                break;
+            }
+            if (attempt > MAX_INSERT_ATTEMPTS) {
+                throw new IllegalStateException("Addresses " + missing.keySet() + " can't be inserted");
+            }
+            try {
+                inserted.increment(canonicalAddressRepository.insertAbsent(new ArrayList<>(missing.values())));
+            } catch (DuplicateKeyException e) {
+                // a concurrent transaction took one of the keys, the next lookup reads what it inserted
+            }
+        }
+        return byKey;
+    }
+
+    public void evict(String key) {
+        addresses.invalidate(key);
+    }
+
+    /**
+     * An address inserted in a transaction that rolls back must never be handed out again.
+     */
+    private void cacheAfterCommit(List<LocalAddress> found) {
+        if (isNot(TransactionSynchronizationManager.isSynchronizationActive())) {
+            found.forEach(address -> addresses.put(address.getAddressKey(), copy(address)));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                found.forEach(address -> addresses.put(address.getAddressKey(), copy(address)));
+            }
+        });
+    }
+
+    private static LocalAddress copy(LocalAddress address) {
+        LocalAddress copy = new LocalAddress(address.getStreet(), address.getHouseNumber());
+        copy.setId(address.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,48 @@
+package com.user.task.service.bulk;
+
+import com.user.task.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import static java.util.Objects.*;
+
+/**
+ * The users a bulk operation applies to: the given ids, or everyone born strictly between two dates as in
+ * {@code GET /users}. Both are walked in id order, so a user changed by one chunk never turns up in a later one.
+ */
+class UserBulkFilter {
+    private final NavigableSet<Long> ids;
+
+    private final LocalDate from;
+
+    private final LocalDate to;
+
+    private UserBulkFilter(NavigableSet<Long> ids, LocalDate from, LocalDate to) {
+        this.ids = ids;
+        this.from = from;
+        this.to = to;
+    }
+
+    static UserBulkFilter ofIds(List<Long> ids) {
+        return new UserBulkFilter(new TreeSet<>(ids), null, null);
+    }
+
+    static UserBulkFilter between(LocalDate from, LocalDate to) {
+        return new UserBulkFilter(null, from, to);
+    }
+
+    long count(UserRepository userRepository) {
+        return nonNull(ids) ? ids.size() : userRepository.countBetweenDates(from, to);
+    }
+
+    List<Long> next(UserRepository userRepository, Long afterId, int size) {
+        if (nonNull(ids)) {
+            return ids.tailSet(afterId, false).stream().limit(size).toList();
+        }
+        return userRepository.findIdsBetweenDatesAfter(from, to, afterId, PageRequest.of(0, size));
+    }
+}
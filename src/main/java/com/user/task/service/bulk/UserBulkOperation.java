@@ -0,0 +1,92 @@
+package com.user.task.service.bulk;
+
+/**
+ * The progress of a bulk operation as of its last finished chunk.
+ */
+public class UserBulkOperation {
+    private final String id;
+
+    private final Type type;
+
+    private final State state;
+
+    private final long total;
+
+    private final long processed;
+
+    private final long affected;
+
+    private final String errorMessage;
+
+    private UserBulkOperation(String id, Type type, State state, long total, long processed, long affected,
+                              String errorMessage) {
+        this.id = id;
+        this.type = type;
+        this.state = state;
+        this.total = total;
+        this.processed = processed;
+        this.affected = affected;
+        this.errorMessage = errorMessage;
+    }
+
+    public static UserBulkOperation running(String id, Type type, long total) {
+        return new UserBulkOperation(id, type, State.RUNNING, total, 0, 0, null);
+    }
+
+    public UserBulkOperation progressed(long processed, long affected) {
+        return new UserBulkOperation(id, type, State.RUNNING, total, processed, affected, null);
+    }
+
+    public UserBulkOperation done() {
+        return new UserBulkOperation(id, type, State.DONE, total, processed, affected, null);
+    }
+
+    public UserBulkOperation failed(String errorMessage) {
+        return new UserBulkOperation(id, type, State.FAILED, total, processed, affected, errorMessage);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * The ids given, or the users in the date range when the operation started.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * The users deleted or changed; a patch leaves users that already hold the values alone.
+     */
+    public long getAffected() {
+        return affected;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public enum Type {
+        DELETE,
+        PATCH
+    }
+
+    public enum State {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
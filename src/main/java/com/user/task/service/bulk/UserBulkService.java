@@ -0,0 +1,199 @@
+package com.user.task.service.bulk;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.user.task.dto.request.UserBulkRequestDto;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.patch.UserField;
+import com.user.task.service.patch.UserPatch;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static com.user.task.config.AppConfig.USERS_CACHE;
+import static com.user.task.util.ValidationUtils.isNot;
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+/**
+ * Deletes or patches many users with set-based statements, {@code users.bulk.chunk-size} users per statement
+ * and transaction. Operations run one after another in the background; their progress is kept in memory for
+ * an hour and is lost on restart, when an operation can simply be sent again. Every chunk publishes the
+ * changes of its users and evicts them from the users cache once it commits.
+ */
+@Service
+@Timed(value = "users.service", histogram = true)
+public class UserBulkService {
+    private static final Duration OPERATIONS_EXPIRY = Duration.ofHours(1);
+    private static final int BASE_CHUNK_SIZE = 1000;
+    private static final int BASE_MAX_IDS = 100_000;
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final LocalAddressStore localAddressStore;
+    private final UserEligibility userEligibility;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxIds;
+    private final Cache<String, UserBulkOperation> operations = Caffeine.newBuilder()
+            .expireAfterWrite(OPERATIONS_EXPIRY)
+            .build();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "user-bulk");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    UserBulkService(UserRepository userRepository, UserMapper userMapper, LocalAddressStore localAddressStore,
+                    UserEligibility userEligibility, ApplicationEventPublisher eventPublisher,
+                    CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                    Environment environment) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.localAddressStore = localAddressStore;
+        this.userEligibility = userEligibility;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = environment.getProperty("users.bulk.chunk-size", Integer.class, BASE_CHUNK_SIZE);
+        this.maxIds = environment.getProperty("users.bulk.max-ids", Integer.class, BASE_MAX_IDS);
+    }
+
+    /**
+     * Stops after the running chunk; the rest of the operation is left undone.
+     */
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public UserBulkOperation delete(UserBulkRequestDto requestDto) {
+        UserBulkFilter filter = toFilter(requestDto);
+        return submit(UserBulkOperation.Type.DELETE, filter, this::deleteChunk);
+    }
+
+    public UserBulkOperation patch(UserBulkRequestDto requestDto) {
+        UserBulkFilter filter = toFilter(requestDto);
+        User values = userMapper.mapToEntity(isNull(requestDto.getValues())
+                ? new UserRequestDto()
+                : requestDto.getValues());
+        bulkPatchValidation(values);
+        if (nonNull(values.getBirthDate())) {
+            userEligibility.check(values.getBirthDate());
+        }
+        if (nonNull(values.getAddress())) {
+            values.setAddress(transactionTemplate.execute(status -> localAddressStore.intern(values.getAddress())));
+        }
+        UserPatch patch = UserPatch.of(values);
+        return submit(UserBulkOperation.Type.PATCH, filter, ids -> patchChunk(ids, patch));
+    }
+
+    public UserBulkOperation get(String id) {
+        UserBulkOperation operation = operations.getIfPresent(id);
+        if (isNull(operation)) {
+            throw new DataProcessingException("There is no such bulk operation with id " + id);
+        }
+        return operation;
+    }
+
+    private UserBulkFilter toFilter(UserBulkRequestDto requestDto) {
+        bulkFilterValidation(requestDto.getIds(), requestDto.getFrom(), requestDto.getTo(), maxIds);
+        if (nonNull(requestDto.getIds())) {
+            return UserBulkFilter.ofIds(requestDto.getIds());
+        }
+        LocalDate fromDate = LocalDate.parse(requestDto.getFrom());
+        LocalDate toDate = LocalDate.parse(requestDto.getTo());
+        dateRangeValidation(fromDate, toDate);
+        return UserBulkFilter.between(fromDate, toDate);
+    }
+
+    private UserBulkOperation submit(UserBulkOperation.Type type, UserBulkFilter filter,
+                                     Function<List<Long>, Integer> chunkAction) {
+        UserBulkOperation operation = UserBulkOperation.running(UUID.randomUUID().toString(), type,
+                filter.count(userRepository));
+        operations.put(operation.getId(), operation);
+        executor.execute(() -> run(operation, filter, chunkAction));
+        return operation;
+    }
+
+    private void run(UserBulkOperation operation, UserBulkFilter filter, Function<List<Long>, Integer> chunkAction) {
+        long processed = 0;
+        long affected = 0;
+        try {
+            List<Long> ids = filter.next(userRepository, Long.MIN_VALUE, chunkSize);
+            while (isNot(ids.isEmpty())) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Stopped before finishing");
+                }
+                List<Long> chunk = ids;
+                affected += transactionTemplate.execute(status -> chunkAction.apply(chunk));
+                evictUsers(chunk);
+                processed += chunk.size();
+                operation = operation.progressed(processed, affected);
+                operations.put(operation.getId(), operation);
+                ids = filter.next(userRepository, chunk.get(chunk.size() - 1), chunkSize);
+            }
+            operations.put(operation.getId(), operation.done());
+        } catch (RuntimeException e) {
+            operations.put(operation.getId(), operation.failed(e.getMessage()));
+        }
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        List<UserState> states = userRepository.findStatesByIdIn(ids);
+        int deleted = userRepository.deleteByIdIn(ids);
+        states.forEach(state -> eventPublisher.publishEvent(UserChangedEvent.deleted(state)));
+        return deleted;
+    }
+
+    /**
+     * Users that already hold the values are published as well; their counts stay the same.
+     */
+    private int patchChunk(List<Long> ids, UserPatch patch) {
+        List<UserState> states = userRepository.findStatesByIdIn(ids);
+        int patched = userRepository.patchAll(ids, patch);
+        for (UserState before : states) {
+            eventPublisher.publishEvent(new UserChangedEvent(before, patched(before, patch)));
+        }
+        return patched;
+    }
+
+    private static UserState patched(UserState before, UserPatch patch) {
+        LocalDate birthDate = patch.contains(UserField.BIRTH_DATE)
+                ? (LocalDate) patch.getValue(UserField.BIRTH_DATE)
+                : before.getBirthDate();
+        String street = patch.contains(UserField.ADDRESS)
+                ? ((LocalAddress) patch.getValue(UserField.ADDRESS)).getStreet()
+                : before.getStreet();
+        return new UserState(before.getId(), birthDate, street);
+    }
+
+    private void evictUsers(List<Long> ids) {
+        Optional.ofNullable(cacheManager.getCache(USERS_CACHE)).ifPresent(users -> ids.forEach(users::evict));
+    }
+}
@@ -0,0 +1,74 @@
+package com.user.task.service.creation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.user.task.dto.request.UserRequestDto;
+
+import static java.util.Objects.*;
+
+/**
+ * A journal line: an accepted request carries the user, a finished one the created id or the error.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class JournalEntry {
+    private String ticket;
+
+    private UserRequestDto user;
+
+    private Long userId;
+
+    private String errorMessage;
+
+    JournalEntry() {
+    }
+
+    private JournalEntry(String ticket, UserRequestDto user, Long userId, String errorMessage) {
+        this.ticket = ticket;
+        this.user = user;
+        this.userId = userId;
+        this.errorMessage = errorMessage;
+    }
+
+    static JournalEntry accepted(String ticket, UserRequestDto user) {
+        return new JournalEntry(ticket, user, null, null);
+    }
+
+    static JournalEntry finished(UserCreation creation) {
+        return new JournalEntry(creation.getTicket(), null, creation.getUserId(), creation.getErrorMessage());
+    }
+
+    boolean isAccepted() {
+        return nonNull(user);
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public UserRequestDto getUser() {
+        return user;
+    }
+
+    public void setUser(UserRequestDto user) {
+        this.user = user;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,52 @@
+package com.user.task.service.creation;
+
+public class UserCreation {
+    private final String ticket;
+
+    private final State state;
+
+    private final Long userId;
+
+    private final String errorMessage;
+
+    private UserCreation(String ticket, State state, Long userId, String errorMessage) {
+        this.ticket = ticket;
+        this.state = state;
+        this.userId = userId;
+        this.errorMessage = errorMessage;
+    }
+
+    public static UserCreation pending(String ticket) {
+        return new UserCreation(ticket, State.PENDING, null, null);
+    }
+
+    public static UserCreation created(String ticket, Long userId) {
+        return new UserCreation(ticket, State.CREATED, userId, null);
+    }
+
+    public static UserCreation failed(String ticket, String errorMessage) {
+        return new UserCreation(ticket, State.FAILED, null, errorMessage);
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public enum State {
+        PENDING,
+        CREATED,
+        FAILED
+    }
+}
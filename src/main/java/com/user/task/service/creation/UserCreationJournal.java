@@ -0,0 +1,116 @@
+package com.user.task.service.creation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * An append-only NDJSON file of accepted and finished creations. Appends are cheap; {@link #sync(long)} makes
+ * them durable, and callers waiting on one sync share a single {@code fsync}.
+ */
+class UserCreationJournal implements Closeable {
+    private final FileChannel channel;
+
+    private final ObjectMapper objectMapper;
+
+    private final Object syncLock = new Object();
+
+    private long synced;
+
+    private UserCreationJournal(FileChannel channel, ObjectMapper objectMapper) throws IOException {
+        this.channel = channel;
+        this.objectMapper = objectMapper;
+        this.synced = channel.size();
+    }
+
+    /**
+     * Reads the accepted entries that never finished and rewrites the journal with only them. A line torn
+     * by a crash is skipped.
+     */
+    static List<JournalEntry> readPending(Path file, ObjectMapper objectMapper) throws IOException {
+        Map<String, JournalEntry> pending = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            try (Stream<String> lines = Files.lines(file)) {
+                lines.map(line -> parse(line, objectMapper))
+                        .filter(Objects::nonNull)
+                        .forEach(entry -> {
+                            if (entry.isAccepted()) {
+                                pending.put(entry.getTicket(), entry);
+                            } else {
+                                pending.remove(entry.getTicket());
+                            }
+                        });
+            }
+        }
+        return List.copyOf(pending.values());
+    }
+
+    static UserCreationJournal open(Path file, ObjectMapper objectMapper, List<JournalEntry> pending)
+            throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (JournalEntry entry : pending) {
+                write(channel, objectMapper, entry);
+            }
+            channel.force(true);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new UserCreationJournal(FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                objectMapper);
+    }
+
+    /**
+     * Returns the journal size after the entry, to pass to {@link #sync(long)}.
+     */
+    synchronized long append(JournalEntry entry) throws IOException {
+        write(channel, objectMapper, entry);
+        return channel.position();
+    }
+
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long size = channel.size();
+            channel.force(false);
+            synced = size;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void write(FileChannel channel, ObjectMapper objectMapper, JournalEntry entry)
+            throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+    }
+
+    private static JournalEntry parse(String line, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.readValue(line, JournalEntry.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
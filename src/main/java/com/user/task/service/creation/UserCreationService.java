@@ -0,0 +1,250 @@
+package com.user.task.service.creation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.user.task.config.AppConfig;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.TooManyRequestsException;
+import com.user.task.model.User;
+import com.user.task.service.UserBatchService;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+/**
+ * Write-behind user creation, on with {@code users.create.async}. Requests are validated, journaled and queued
+ * right away; writer threads take whatever is queued, up to {@code users.batch.chunk-size} users, and insert it
+ * through {@link UserBatchService} in grouped transactions. Only a final outcome, created or rejected, is journaled;
+ * users the database couldn't take are queued again after a growing pause. Requests still in the journal on startup
+ * are queued again, so a crash between the journal and the database may create the same user twice.
+ */
+@Service
+public class UserCreationService {
+    private static final Duration CREATIONS_EXPIRY = Duration.ofHours(1);
+    private static final long POLL_MILLIS = 100;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final Logger log = LoggerFactory.getLogger(UserCreationService.class);
+
+    private final UserBatchService userBatchService;
+    private final UserMapper userMapper;
+    private final AppConfig appConfig;
+    private final UserEligibility userEligibility;
+    private final ObjectMapper objectMapper;
+    private final EmailFilter emailFilter;
+    private final Cache<String, UserCreation> creations = Caffeine.newBuilder()
+            .expireAfterWrite(CREATIONS_EXPIRY)
+            .build();
+    private final BlockingQueue<PendingCreation> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> writers = new ArrayList<>();
+
+    private UserCreationJournal journal;
+
+    private int capacity;
+
+    private volatile boolean running;
+
+    UserCreationService(UserBatchService userBatchService, UserMapper userMapper, AppConfig appConfig,
+                        UserEligibility userEligibility, ObjectMapper objectMapper, EmailFilter emailFilter) {
+        this.userBatchService = userBatchService;
+        this.userMapper = userMapper;
+        this.appConfig = appConfig;
+        this.userEligibility = userEligibility;
+        this.objectMapper = objectMapper;
+        this.emailFilter = emailFilter;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (isNot(appConfig.isCreateAsync())) {
+            return;
+        }
+        capacity = appConfig.getCreateQueueCapacity();
+        Path file = Path.of(appConfig.getCreateJournal());
+        List<JournalEntry> pending = UserCreationJournal.readPending(file, objectMapper);
+        journal = UserCreationJournal.open(file, objectMapper, pending);
+        for (JournalEntry entry : pending) {
+            creations.put(entry.getTicket(), UserCreation.pending(entry.getTicket()));
+            queue.add(new PendingCreation(entry.getTicket(), entry.getUser()));
+        }
+        running = true;
+        for (int i = 0; i < appConfig.getCreateWriters(); i++) {
+            Thread writer = new Thread(this::write, "user-creation-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * Lets the writers finish their current batch. Whatever is still queued stays in the journal for the next start.
+     */
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        if (nonNull(journal)) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return nonNull(journal);
+    }
+
+    public UserCreation enqueue(UserRequestDto requestDto) {
+        User user = userMapper.mapToEntity(requestDto);
+        fullUserValidation(user);
+        userEligibility.check(user.getBirthDate());
+        emailFilter.checkAvailable(user.getEmail(), null);
+        String ticket = UUID.randomUUID().toString();
+        try {
+            long position;
+            synchronized (queue) {
+                if (queue.size() >= capacity) {
+                    throw new TooManyRequestsException("User creation queue is full, try again later");
+                }
+                position = journal.append(JournalEntry.accepted(ticket, requestDto));
+                creations.put(ticket, UserCreation.pending(ticket));
+                queue.add(new PendingCreation(ticket, requestDto));
+            }
+            journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return UserCreation.pending(ticket);
+    }
+
+    public UserCreation get(String ticket) {
+        UserCreation creation = creations.getIfPresent(ticket);
+        if (isNull(creation)) {
+            throw new DataProcessingException("There is no such user creation with ticket " + ticket);
+        }
+        return creation;
+    }
+
+    private void write() {
+        int flushSize = appConfig.getBatchChunkSize();
+        List<PendingCreation> batch = new ArrayList<>(flushSize);
+        long backoffMillis = 0;
+        while (running) {
+            try {
+                if (backoffMillis > 0) {
+                    pause(backoffMillis);
+                }
+                PendingCreation first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, flushSize - 1);
+                int retried = flush(batch);
+                backoffMillis = retried == 0 ? 0 : nextBackoff(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // nothing of the batch was saved, validation reads the database too
+                queue.addAll(batch);
+                backoffMillis = nextBackoff(backoffMillis);
+                log.warn("User creation batch of {} is queued again in {} ms", batch.size(), backoffMillis, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Journals the users saved or rejected for good, and queues again the ones the database couldn't take.
+     *
+     * @return how many users are queued again
+     */
+    private int flush(List<PendingCreation> batch) {
+        UserBatchResponseDto response = userBatchService.createAll(batch.stream()
+                .map(PendingCreation::getRequest)
+                .iterator());
+        List<UserCreation> finished = new ArrayList<>(batch.size());
+        int retried = 0;
+        for (UserBatchResultDto result : response.getResults()) {
+            PendingCreation pending = batch.get(result.getIndex());
+            if (result.isRetryable()) {
+                queue.add(pending);
+                retried++;
+                log.warn("User creation {} is queued again: {}", pending.getTicket(), result.getErrorMessage());
+                continue;
+            }
+            UserCreation creation = result.getStatus() == UserBatchResultDto.Status.CREATED
+                    ? UserCreation.created(pending.getTicket(), result.getId())
+                    : UserCreation.failed(pending.getTicket(), result.getErrorMessage());
+            creations.put(pending.getTicket(), creation);
+            finished.add(creation);
+        }
+        try {
+            long position = 0;
+            for (UserCreation creation : finished) {
+                position = journal.append(JournalEntry.finished(creation));
+            }
+            journal.sync(position);
+        } catch (IOException e) {
+            // the users are saved, only a restart before the next sync would queue them again
+            log.error("Finished user creations can't be journaled", e);
+        }
+        return retried;
+    }
+
+    private void pause(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (running && System.currentTimeMillis() < deadline) {
+            Thread.sleep(Math.min(POLL_MILLIS, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    private static long nextBackoff(long backoffMillis) {
+        return Math.min(Math.max(backoffMillis * 2, MIN_BACKOFF_MILLIS), MAX_BACKOFF_MILLIS);
+    }
+
+    private static final class PendingCreation {
+        private final String ticket;
+
+        private final UserRequestDto request;
+
+        private PendingCreation(String ticket, UserRequestDto request) {
+            this.ticket = ticket;
+            this.request = request;
+        }
+
+        private String getTicket() {
+            return ticket;
+        }
+
+        private UserRequestDto getRequest() {
+            return request;
+        }
+    }
+}
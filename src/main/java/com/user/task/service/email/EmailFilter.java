@@ -0,0 +1,117 @@
+package com.user.task.service.email;
+
+import com.user.task.exception.ConflictException;
+import com.user.task.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+import static com.user.task.util.EmailUtils.normalize;
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.*;
+
+/**
+ * Enforces unique emails without a query for every new one. The unique index on {@code email_normalized} is the
+ * source of truth; a Bloom filter of the stored emails answers "surely absent" for most new emails, and only the
+ * rest are looked up. Emails of deleted or changed users stay in the filter until the next rebuild.
+ */
+@Component
+public class EmailFilter {
+    private static final long BASE_EXPECTED_EMAILS = 1_000_000;
+    private static final double BASE_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedEmails;
+    private final double falsePositiveProbability;
+    private final Counter absent;
+    private final Counter lookedUp;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+
+    private volatile BloomFilter rebuilding;
+
+    EmailFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                Environment environment, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.expectedEmails = environment.getProperty("users.email-filter.expected-emails", Long.class,
+                BASE_EXPECTED_EMAILS);
+        this.falsePositiveProbability = environment.getProperty("users.email-filter.false-positive-probability",
+                Double.class, BASE_FALSE_POSITIVE_PROBABILITY);
+        this.absent = meterRegistry.counter("users.email.filter.checks", "result", "absent");
+        this.lookedUp = meterRegistry.counter("users.email.filter.checks", "result", "maybe");
+        this.falsePositives = meterRegistry.counter("users.email.filter.false.positives");
+        Gauge.builder("users.email.filter.size", this, emailFilter -> emailFilter.filter.getSizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.email.filter.capacity", this, emailFilter -> emailFilter.filter.getCapacity())
+                .register(meterRegistry);
+        Gauge.builder("users.email.filter.false.positive.probability", this,
+                        emailFilter -> emailFilter.filter.getFalsePositiveProbability())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sized for twice the stored emails, but not less than {@code users.email-filter.expected-emails}, so
+     * the false positive rate stays near the configured one as users are added.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${users.email-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${users.email-filter.rebuild-interval:PT1H}")
+    public void rebuild() {
+        long stored = userRepository.countByEmailNormalizedNotNull();
+        BloomFilter next = new BloomFilter(Math.max(expectedEmails, 2 * stored), falsePositiveProbability);
+        rebuilding = next;
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllNormalizedEmails()) {
+                emails.forEach(next::put);
+            }
+        });
+        filter = next;
+        rebuilding = null;
+    }
+
+    /**
+     * Fails if another user than {@code id}, {@code null} for a new one, already has the email.
+     */
+    public void checkAvailable(String email, Long id) {
+        String normalized = normalize(email);
+        if (isNull(normalized)) {
+            return;
+        }
+        if (isNot(filter.mightContain(normalized))) {
+            absent.increment();
+            return;
+        }
+        lookedUp.increment();
+        Long ownerId = userRepository.findIdByEmailNormalized(normalized).orElse(null);
+        if (isNull(ownerId)) {
+            falsePositives.increment();
+        } else if (isNot(ownerId.equals(id))) {
+            throw new ConflictException("User with email " + email + " already exists");
+        }
+    }
+
+    public void put(String email) {
+        String normalized = normalize(email);
+        if (isNull(normalized)) {
+            return;
+        }
+        filter.put(normalized);
+        BloomFilter next = rebuilding;
+        if (nonNull(next)) {
+            next.put(normalized);
+        }
+    }
+}
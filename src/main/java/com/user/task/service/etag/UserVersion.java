@@ -0,0 +1,20 @@
+package com.user.task.service.etag;
+
+public class UserVersion {
+    private final Long id;
+
+    private final Long version;
+
+    public UserVersion(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,78 @@
+package com.user.task.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.user.task.service.export.UserExportWriter.getLong;
+import static java.util.Objects.*;
+
+/**
+ * RFC 4180 CSV with a header line, empty fields stand for nulls.
+ */
+class CsvUserExportWriter implements UserExportWriter {
+    private static final String HEADER = "id,email,first_name,last_name,birth_date,address_id,street,house_number,"
+            + "phone_number\r\n";
+
+    private final Writer writer;
+
+    CsvUserExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.writer.write(HEADER);
+    }
+
+    @Override
+    public void writeRow(ResultSet row) throws SQLException, IOException {
+        writer.write(Long.toString(row.getLong("id")));
+        writeField(row.getString("email"));
+        writeField(row.getString("first_name"));
+        writeField(row.getString("last_name"));
+        writeField(row.getString("birth_date"));
+        writeField(getLong(row, "address_id"));
+        writeField(row.getString("street"));
+        writeField(getLong(row, "house_number"));
+        writeField(row.getString("phone_number"));
+        writer.write("\r\n");
+    }
+
+    private void writeField(Long value) throws IOException {
+        writer.write(',');
+        if (nonNull(value)) {
+            writer.write(Long.toString(value));
+        }
+    }
+
+    private void writeField(String value) throws IOException {
+        writer.write(',');
+        if (isNull(value)) {
+            return;
+        }
+        if (needsQuotes(value)) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
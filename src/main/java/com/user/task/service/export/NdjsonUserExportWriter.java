@@ -0,0 +1,58 @@
+package com.user.task.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.user.task.service.export.UserExportWriter.getLong;
+import static java.util.Objects.*;
+
+/**
+ * One user per line, with the same fields as a {@code GET /users/{id}} body.
+ */
+class NdjsonUserExportWriter implements UserExportWriter {
+    private final JsonGenerator generator;
+
+    NdjsonUserExportWriter(JsonGenerator generator) {
+        this.generator = generator;
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeRow(ResultSet row) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getLong("id"));
+        generator.writeStringField("email", row.getString("email"));
+        generator.writeStringField("firstName", row.getString("first_name"));
+        generator.writeStringField("lastName", row.getString("last_name"));
+        generator.writeStringField("birthDate", row.getString("birth_date"));
+        Long addressId = getLong(row, "address_id");
+        if (isNull(addressId)) {
+            generator.writeNullField("address");
+        } else {
+            generator.writeObjectFieldStart("address");
+            generator.writeNumberField("id", addressId);
+            generator.writeStringField("street", row.getString("street"));
+            writeNumberField("houseNumber", getLong(row, "house_number"));
+            generator.writeEndObject();
+        }
+        generator.writeStringField("phoneNumber", row.getString("phone_number"));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeNumberField(String name, Long value) throws IOException {
+        if (isNull(value)) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.user.task.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.user.task.exception.DataProcessingException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum UserExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    UserExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public static UserExportFormat of(String format) {
+        for (UserExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new DataProcessingException("Export format " + format + " is not valid, use ndjson or csv");
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    UserExportWriter createWriter(OutputStream out, JsonFactory jsonFactory) throws IOException {
+        return this == NDJSON ? new NdjsonUserExportWriter(jsonFactory.createGenerator(out))
+                : new CsvUserExportWriter(out);
+    }
+}
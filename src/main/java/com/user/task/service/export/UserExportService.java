@@ -0,0 +1,42 @@
+package com.user.task.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.task.repository.UserExportRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static java.util.Objects.*;
+
+@Service
+@Timed(value = "users.service", histogram = true)
+public class UserExportService {
+    private final UserExportRepository userExportRepository;
+    private final ObjectMapper objectMapper;
+
+    UserExportService(UserExportRepository userExportRepository, ObjectMapper objectMapper) {
+        this.userExportRepository = userExportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every user with an id greater than {@code afterId} in id order, so an interrupted export can be
+     * resumed from the last id that arrived.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long afterId, UserExportFormat format, OutputStream out) throws IOException {
+        try (UserExportWriter writer = format.createWriter(out, objectMapper.getFactory())) {
+            userExportRepository.exportAfter(isNull(afterId) ? 0 : afterId, row -> {
+                try {
+                    writer.writeRow(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.user.task.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns export rows straight into bytes, reading columns from the result set by the labels
+ * of {@link com.user.task.repository.UserExportRepository}.
+ */
+interface UserExportWriter extends Closeable {
+    void writeRow(ResultSet row) throws SQLException, IOException;
+
+    static Long getLong(ResultSet row, String column) throws SQLException {
+        long value = row.getLong(column);
+        return row.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,243 @@
+package com.user.task.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.UnprocessableEntityException;
+import com.user.task.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static com.user.task.validation.UserValidation.idempotencyKeyValidation;
+import static java.util.Objects.*;
+
+/**
+ * Runs a request once per {@code Idempotency-Key} and answers repeats with the first response. Responses are
+ * kept in memory, bounded by their size and evicted after {@code users.idempotency.ttl}; with
+ * {@code users.idempotency.jdbc=true} they are shared through the database as well. A repeat that arrives
+ * while the first request is running waits for its response instead of running again. Failed requests are
+ * not remembered, so they can be retried with the same key. The stored {@code ETag} is the one of the first
+ * response's format, callers that tag per format rewrite it for the repeat.
+ */
+@Service
+public class IdempotencyService {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final Duration BASE_TTL = Duration.ofHours(24);
+    private static final Duration BASE_PENDING_TIMEOUT = Duration.ofMinutes(1);
+    private static final DataSize BASE_MAX_SIZE = DataSize.ofMegabytes(64);
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final boolean jdbc;
+    private final Cache<String, IdempotentResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> running = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter stored;
+
+    IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository, ObjectMapper objectMapper, Clock clock,
+                       Environment environment, MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttl = environment.getProperty("users.idempotency.ttl", Duration.class, BASE_TTL);
+        this.pendingTimeout = environment.getProperty("users.idempotency.pending-timeout", Duration.class,
+                BASE_PENDING_TIMEOUT);
+        this.jdbc = environment.getProperty("users.idempotency.jdbc", Boolean.class, false);
+        DataSize maxSize = environment.getProperty("users.idempotency.max-size", DataSize.class, BASE_MAX_SIZE);
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, IdempotentResponse response) ->
+                        ENTRY_OVERHEAD + key.length() + response.getBody().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+        this.executed = meterRegistry.counter("users.idempotency.requests", "result", "executed");
+        this.replayed = meterRegistry.counter("users.idempotency.requests", "result", "replayed");
+        this.joined = meterRegistry.counter("users.idempotency.requests", "result", "joined");
+        this.stored = meterRegistry.counter("users.idempotency.requests", "result", "stored");
+    }
+
+    /**
+     * Identifies the request a key was first used for, so the same key can't be reused for another one.
+     */
+    public String fingerprint(String endpoint, Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return endpoint + " " + HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> request) {
+        idempotencyKeyValidation(key);
+        IdempotentResponse response = responses.getIfPresent(key);
+        if (nonNull(response)) {
+            replayed.increment();
+            return replay(key, fingerprint, response);
+        }
+        CompletableFuture<IdempotentResponse> first = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> other = running.putIfAbsent(key, first);
+        if (nonNull(other)) {
+            joined.increment();
+            return replay(key, fingerprint, await(other));
+        }
+        try {
+            return executeFirst(key, fingerprint, request, first);
+        } finally {
+            running.remove(key, first);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.idempotency.purge-interval:PT1H}")
+    public void purge() {
+        if (jdbc) {
+            idempotencyKeyRepository.deleteCreatedBefore(clock.instant().minus(ttl));
+        }
+    }
+
+    private ResponseEntity<?> executeFirst(String key, String fingerprint, Supplier<ResponseEntity<?>> request,
+                                           CompletableFuture<IdempotentResponse> first) {
+        try {
+            // the previous request with the key may have finished between the cache check and taking the key
+            IdempotentResponse response = responses.getIfPresent(key);
+            if (nonNull(response)) {
+                replayed.increment();
+                first.complete(response);
+                return replay(key, fingerprint, response);
+            }
+            if (jdbc) {
+                response = reserve(key, fingerprint);
+            }
+            if (nonNull(response)) {
+                stored.increment();
+                responses.put(key, response);
+                first.complete(response);
+                return replay(key, fingerprint, response);
+            }
+            executed.increment();
+            ResponseEntity<?> result = executeReserved(key, request);
+            response = toIdempotentResponse(fingerprint, result);
+            if (jdbc) {
+                idempotencyKeyRepository.complete(key, response);
+            }
+            responses.put(key, response);
+            first.complete(response);
+            return result;
+        } catch (RuntimeException e) {
+            first.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<?> executeReserved(String key, Supplier<ResponseEntity<?>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            if (jdbc) {
+                idempotencyKeyRepository.release(key);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the response stored by another instance, or {@code null} once the key is reserved here.
+     */
+    private IdempotentResponse reserve(String key, String fingerprint) {
+        Instant now = clock.instant();
+        if (idempotencyKeyRepository.reserve(key, fingerprint, now, now.minus(ttl), now.minus(pendingTimeout))) {
+            return null;
+        }
+        IdempotentResponse response = idempotencyKeyRepository.find(key, now.minus(ttl))
+                .filter(found -> isNot(found.isPending()))
+                .orElse(null);
+        if (isNull(response)) {
+            throw new ConflictException("A request with Idempotency-Key " + key + " is still in progress");
+        }
+        return response;
+    }
+
+    private IdempotentResponse toIdempotentResponse(String fingerprint, ResponseEntity<?> result) {
+        HttpHeaders headers = result.getHeaders();
+        try {
+            return new IdempotentResponse(fingerprint, result.getStatusCode().value(),
+                    isNull(headers.getLocation()) ? null : headers.getLocation().toString(), headers.getETag(),
+                    objectMapper.writeValueAsBytes(result.getBody()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The body is kept as JSON and read back into a tree, so the message converters write it in whichever format
+     * the repeat accepts, the same as the first response.
+     */
+    private ResponseEntity<JsonNode> replay(String key, String fingerprint, IdempotentResponse response) {
+        if (isNot(fingerprint.equals(response.getFingerprint()))) {
+            throw new UnprocessableEntityException("Idempotency-Key " + key
+                    + " was already used for another request");
+        }
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(response.getBody());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatus())
+                .header(IDEMPOTENT_REPLAYED, "true");
+        if (nonNull(response.getLocation())) {
+            builder.header(HttpHeaders.LOCATION, response.getLocation());
+        }
+        if (nonNull(response.getETag())) {
+            builder.header(HttpHeaders.ETAG, response.getETag());
+        }
+        return builder.body(body);
+    }
+
+    private static IdempotentResponse await(CompletableFuture<IdempotentResponse> first) {
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
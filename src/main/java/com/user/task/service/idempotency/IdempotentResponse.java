@@ -0,0 +1,55 @@
+package com.user.task.service.idempotency;
+
+import static java.util.Objects.*;
+
+/**
+ * The response given to the first request with an idempotency key, with the JSON body already written.
+ * Without a status it stands for a first request that is still running.
+ */
+public class IdempotentResponse {
+    private final String fingerprint;
+
+    private final Integer status;
+
+    private final String location;
+
+    private final String eTag;
+
+    private final byte[] body;
+
+    public IdempotentResponse(String fingerprint, Integer status, String location, String eTag, byte[] body) {
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.location = location;
+        this.eTag = eTag;
+        this.body = body;
+    }
+
+    public static IdempotentResponse pending(String fingerprint) {
+        return new IdempotentResponse(fingerprint, null, null, null, null);
+    }
+
+    public boolean isPending() {
+        return isNull(status);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
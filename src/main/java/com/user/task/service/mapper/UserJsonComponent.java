@@ -0,0 +1,121 @@
+package com.user.task.service.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.user.task.dto.response.LocalAddressResponseDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static java.util.Objects.*;
+
+/**
+ * Writes users field by field, in the order and with the values of the {@link UserResponseDto} bean serializer,
+ * so the bytes stay the same. Field names are encoded once instead of per user, nothing is introspected, and a
+ * {@link User} is written as its {@code UserResponseDto} without being mapped to one.
+ */
+@JsonComponent
+public class UserJsonComponent {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString STREET = new SerializedString("street");
+    private static final SerializedString HOUSE_NUMBER = new SerializedString("houseNumber");
+    private static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+
+    public static class UserSerializer extends JsonSerializer<User> {
+        @Override
+        public void serialize(User user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeStart(generator, provider, user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                    user.getBirthDate());
+            LocalAddress address = user.getAddress();
+            if (isNull(address)) {
+                generator.writeFieldName(ADDRESS);
+                generator.writeNull();
+            } else {
+                writeAddress(generator, address.getId(), address.getStreet(), address.getHouseNumber());
+            }
+            writeEnd(generator, user.getPhoneNumber());
+        }
+    }
+
+    public static class UserResponseSerializer extends JsonSerializer<UserResponseDto> {
+        @Override
+        public void serialize(UserResponseDto user, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            writeStart(generator, provider, user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                    user.getBirthDate());
+            LocalAddressResponseDto address = user.getAddress();
+            if (isNull(address)) {
+                generator.writeFieldName(ADDRESS);
+                generator.writeNull();
+            } else {
+                writeAddress(generator, address.getId(), address.getStreet(), address.getHouseNumber());
+            }
+            writeEnd(generator, user.getPhoneNumber());
+        }
+    }
+
+    private static void writeStart(JsonGenerator generator, SerializerProvider provider, Long id, String email,
+                                   String firstName, String lastName, LocalDate birthDate) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, ID, id);
+        writeString(generator, EMAIL, email);
+        writeString(generator, FIRST_NAME, firstName);
+        writeString(generator, LAST_NAME, lastName);
+        generator.writeFieldName(BIRTH_DATE);
+        if (isNull(birthDate)) {
+            generator.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(birthDate, generator);
+        } else {
+            generator.writeString(birthDate.toString());
+        }
+    }
+
+    private static void writeAddress(JsonGenerator generator, Long id, String street, Long houseNumber)
+            throws IOException {
+        generator.writeFieldName(ADDRESS);
+        generator.writeStartObject();
+        writeNumber(generator, ID, id);
+        writeString(generator, STREET, street);
+        writeNumber(generator, HOUSE_NUMBER, houseNumber);
+        generator.writeEndObject();
+    }
+
+    private static void writeEnd(JsonGenerator generator, String phoneNumber) throws IOException {
+        writeString(generator, PHONE_NUMBER, phoneNumber);
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializableString name, Long value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.user.task.service.pagination;
+
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+public class UserCursor {
+    private static final String SEPARATOR = ":";
+
+    private final LocalDate birthDate;
+
+    private final Long id;
+
+    public UserCursor(LocalDate birthDate, Long id) {
+        this.birthDate = birthDate;
+        this.id = id;
+    }
+
+    public static UserCursor of(User user) {
+        return new UserCursor(user.getBirthDate(), user.getId());
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new UserCursor(LocalDate.parse(decoded.substring(0, separatorIndex)),
+                    Long.valueOf(decoded.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw new DataProcessingException("Cursor " + cursor + " is not valid", e);
+        }
+    }
+
+    public String encode() {
+        String raw = birthDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
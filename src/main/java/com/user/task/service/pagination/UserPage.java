@@ -0,0 +1,24 @@
+package com.user.task.service.pagination;
+
+import com.user.task.model.User;
+
+import java.util.List;
+
+public class UserPage {
+    private final List<User> users;
+
+    private final String nextCursor;
+
+    public UserPage(List<User> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.user.task.service.patch;
+
+import com.user.task.model.User;
+
+import java.util.function.Function;
+
+public enum UserField {
+    EMAIL("email", User::getEmail),
+    FIRST_NAME("firstName", User::getFirstName),
+    LAST_NAME("lastName", User::getLastName),
+    BIRTH_DATE("birthDate", User::getBirthDate),
+    ADDRESS("address", User::getAddress),
+    PHONE_NUMBER("phoneNumber", User::getPhoneNumber);
+
+    private final String attribute;
+
+    private final Function<User, Object> getter;
+
+    UserField(String attribute, Function<User, Object> getter) {
+        this.attribute = attribute;
+        this.getter = getter;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Object getValue(User user) {
+        return getter.apply(user);
+    }
+}
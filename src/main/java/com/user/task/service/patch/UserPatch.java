@@ -0,0 +1,57 @@
+package com.user.task.service.patch;
+
+import com.user.task.model.User;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.*;
+
+public class UserPatch {
+    private final User values;
+
+    private final Set<UserField> fields;
+
+    private UserPatch(User values, Set<UserField> fields) {
+        this.values = values;
+        this.fields = fields;
+    }
+
+    public static UserPatch of(User values) {
+        Set<UserField> fields = EnumSet.noneOf(UserField.class);
+        for (UserField field : UserField.values()) {
+            if (nonNull(field.getValue(values))) {
+                fields.add(field);
+            }
+        }
+        return new UserPatch(values, fields);
+    }
+
+    public Set<UserField> getFields() {
+        return fields;
+    }
+
+    public Object getValue(UserField field) {
+        return field.getValue(values);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    public boolean contains(UserField field) {
+        return fields.contains(field);
+    }
+
+    public Set<UserField> changedFields(User user) {
+        Set<UserField> changed = EnumSet.noneOf(UserField.class);
+        for (UserField field : fields) {
+            if (isNot(Objects.equals(field.getValue(values), field.getValue(user)))) {
+                changed.add(field);
+            }
+        }
+        return changed;
+    }
+}
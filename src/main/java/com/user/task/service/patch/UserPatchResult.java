@@ -0,0 +1,36 @@
+package com.user.task.service.patch;
+
+import com.user.task.model.User;
+
+import static java.util.Objects.*;
+
+public class UserPatchResult {
+    private final User user;
+
+    private final Long version;
+
+    private UserPatchResult(User user, Long version) {
+        this.user = user;
+        this.version = version;
+    }
+
+    public static UserPatchResult modified(User user) {
+        return new UserPatchResult(user, null);
+    }
+
+    public static UserPatchResult notModified(Long version) {
+        return new UserPatchResult(null, version);
+    }
+
+    public boolean isModified() {
+        return nonNull(user);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Long getVersion() {
+        return isModified() ? user.getVersion() : version;
+    }
+}
@@ -0,0 +1,226 @@
+package com.user.task.service.search;
+
+import com.user.task.dto.response.LocalAddressResponseDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.dto.response.UserSearchResponseDto;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static java.util.Objects.*;
+
+/**
+ * Lucene index of the users on local disk. Names, email and street are split into lowercase words which are
+ * indexed as exact terms, so a query word matches every indexed word it is a prefix of. A whole-word match and
+ * a match in the last name score higher. Hits are ranked by score alone, which lets Lucene skip blocks of
+ * documents that can't reach the requested page; equal scores keep index order. The fields of the response are
+ * stored in the index, a search never reads the database.
+ */
+public class UserSearchIndex implements Closeable {
+    private static final String ID = "id";
+    private static final String EMAIL = "email";
+    private static final String FIRST_NAME = "first_name";
+    private static final String LAST_NAME = "last_name";
+    private static final String STREET = "street";
+    private static final String BIRTH_DATE = "birth_date";
+    private static final String ADDRESS_ID = "address_id";
+    private static final String HOUSE_NUMBER = "house_number";
+    private static final String PHONE_NUMBER = "phone_number";
+    private static final String STORED = ".stored";
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            LAST_NAME, 4f,
+            FIRST_NAME, 3f,
+            EMAIL, 2f,
+            STREET, 1f);
+    private static final float WHOLE_WORD_BOOST = 2f;
+
+    private final Directory directory;
+
+    private volatile IndexWriter writer;
+
+    private volatile SearcherManager searcherManager;
+
+    /**
+     * Written to swap the searcher manager, read only to acquire a searcher from it, which is released to the
+     * manager it came from even when that one is closed by then.
+     */
+    private final ReadWriteLock searcherLock = new ReentrantReadWriteLock();
+
+    public UserSearchIndex(Path path) throws IOException {
+        this.directory = FSDirectory.open(path);
+        open();
+    }
+
+    public static List<String> words(String text) {
+        if (isNull(text)) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (isNot(word.isEmpty())) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    public boolean hasCommit() throws IOException {
+        return DirectoryReader.indexExists(directory);
+    }
+
+    public void add(UserResponseDto user) throws IOException {
+        writer.addDocument(toDocument(user));
+    }
+
+    public void update(UserResponseDto user) throws IOException {
+        writer.updateDocument(idTerm(user.getId()), toDocument(user));
+    }
+
+    public void delete(Long id) throws IOException {
+        writer.deleteDocuments(idTerm(id));
+    }
+
+    public void deleteAll() throws IOException {
+        writer.deleteAll();
+    }
+
+    /**
+     * Makes the changes since the last commit durable and visible to searches.
+     */
+    public void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Drops the changes since the last commit.
+     */
+    public void rollback() throws IOException {
+        searcherLock.writeLock().lock();
+        try {
+            searcherManager.close();
+            writer.rollback();
+            open();
+        } finally {
+            searcherLock.writeLock().unlock();
+        }
+    }
+
+    public UserSearchResponseDto search(List<String> words, int offset, int size) throws IOException {
+        SearcherManager searcherManager;
+        IndexSearcher searcher;
+        searcherLock.readLock().lock();
+        try {
+            searcherManager = this.searcherManager;
+            searcher = searcherManager.acquire();
+        } finally {
+            searcherLock.readLock().unlock();
+        }
+        try {
+            TopDocs topDocs = searcher.search(query(words), offset + size);
+            StoredFields storedFields = searcher.storedFields();
+            List<UserResponseDto> users = new ArrayList<>();
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                users.add(toUser(storedFields.document(topDocs.scoreDocs[i].doc)));
+            }
+            return new UserSearchResponseDto(users, topDocs.totalHits.value,
+                    topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherLock.writeLock().lock();
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } finally {
+            searcherLock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig()
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    private static Query query(List<String> words) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                Term term = new Term(field, word);
+                anyField.add(new BoostQuery(new TermQuery(term), boost * WHOLE_WORD_BOOST),
+                        BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(term), boost), BooleanClause.Occur.SHOULD);
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, String.valueOf(id));
+    }
+
+    private static Document toDocument(UserResponseDto user) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(user.getId()), Field.Store.YES));
+        addText(document, EMAIL, user.getEmail());
+        addText(document, FIRST_NAME, user.getFirstName());
+        addText(document, LAST_NAME, user.getLastName());
+        if (nonNull(user.getBirthDate())) {
+            document.add(new StoredField(BIRTH_DATE, user.getBirthDate().toEpochDay()));
+        }
+        LocalAddressResponseDto address = user.getAddress();
+        if (nonNull(address)) {
+            document.add(new StoredField(ADDRESS_ID, address.getId()));
+            addText(document, STREET, address.getStreet());
+            if (nonNull(address.getHouseNumber())) {
+                document.add(new StoredField(HOUSE_NUMBER, address.getHouseNumber()));
+            }
+        }
+        if (nonNull(user.getPhoneNumber())) {
+            document.add(new StoredField(PHONE_NUMBER, user.getPhoneNumber()));
+        }
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (isNull(value)) {
+            return;
+        }
+        document.add(new StoredField(field + STORED, value));
+        for (String word : new LinkedHashSet<>(words(value))) {
+            document.add(new StringField(field, word, Field.Store.NO));
+        }
+    }
+
+    private static UserResponseDto toUser(Document document) {
+        IndexableField birthDate = document.getField(BIRTH_DATE);
+        IndexableField addressId = document.getField(ADDRESS_ID);
+        IndexableField houseNumber = document.getField(HOUSE_NUMBER);
+        return new UserResponseDto(Long.valueOf(document.get(ID)), document.get(EMAIL + STORED),
+                document.get(FIRST_NAME + STORED), document.get(LAST_NAME + STORED),
+                isNull(birthDate) ? null : LocalDate.ofEpochDay(birthDate.numericValue().longValue()),
+                isNull(addressId) ? null : addressId.numericValue().longValue(),
+                document.get(STREET + STORED),
+                isNull(houseNumber) ? null : houseNumber.numericValue().longValue(),
+                document.get(PHONE_NUMBER));
+    }
+}
@@ -0,0 +1,210 @@
+package com.user.task.service.search;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.dto.response.UserSearchResponseDto;
+import com.user.task.exception.ServiceUnavailableException;
+import com.user.task.repository.UserExportRepository;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.user.task.util.ValidationUtils.isNot;
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+/**
+ * Keeps a {@link UserSearchIndex} in step with the database. Changed users are collected from the write
+ * events and applied in one commit per refresh; the whole index is rebuilt from disjoint id ranges read in
+ * parallel at startup, while searches keep using the last committed index.
+ */
+@Service
+@Timed(value = "users.service", histogram = true)
+@ConditionalOnProperty(name = "users.search.enabled", havingValue = "true")
+public class UserSearchService {
+    private static final int IDS_CHUNK_SIZE = 1000;
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final UserRepository userRepository;
+    private final UserExportRepository userExportRepository;
+    private final AppConfig appConfig;
+    private final UserSearchIndex index;
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean ready;
+
+    private volatile boolean closing;
+
+    UserSearchService(UserRepository userRepository, UserExportRepository userExportRepository,
+                      AppConfig appConfig) throws IOException {
+        this.userRepository = userRepository;
+        this.userExportRepository = userExportRepository;
+        this.appConfig = appConfig;
+        this.index = new UserSearchIndex(Path.of(appConfig.getSearchDirectory()));
+        this.ready = index.hasCommit();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (nonNull(event.getUserId())) {
+            changedIds.add(event.getUserId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        Thread thread = new Thread(this::rebuild, "user-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public UserSearchResponseDto search(String query, Integer page, Integer size) {
+        List<String> words = UserSearchIndex.words(query);
+        searchQueryValidation(words);
+        Integer pageNumber = isNull(page) ? 0 : page;
+        Integer pageSize = isNull(size) ? appConfig.getPageSize() : size;
+        pageSizeValidation(pageSize, appConfig.getMaxPageSize());
+        searchWindowValidation(pageNumber, pageSize);
+        if (isNot(ready)) {
+            throw new ServiceUnavailableException("Users search index is not ready yet, try again later");
+        }
+        try {
+            return index.search(words, pageNumber * pageSize, pageSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Skipped while a rebuild holds the index; the changed ids stay queued for the next refresh.
+     */
+    @Scheduled(fixedDelayString = "${users.search.refresh-interval:PT1S}")
+    public void refresh() {
+        if (changedIds.isEmpty() || isNot(writeLock.tryLock())) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(changedIds);
+        changedIds.removeAll(ids);
+        try {
+            Set<Long> deletedIds = new HashSet<>(ids);
+            for (UserResponseDto user : findAllDtosByIds(ids)) {
+                index.update(user);
+                deletedIds.remove(user.getId());
+            }
+            for (Long id : deletedIds) {
+                index.delete(id);
+            }
+            index.commit();
+        } catch (IOException e) {
+            changedIds.addAll(ids);
+            rollback();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            changedIds.addAll(ids);
+            rollback();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void rebuild() {
+        writeLock.lock();
+        ExecutorService executor = Executors.newFixedThreadPool(appConfig.getSearchRebuildThreads());
+        try {
+            index.deleteAll();
+            List<Future<?>> ranges = new ArrayList<>();
+            long maxId = userExportRepository.findMaxId();
+            int rangeCount = appConfig.getSearchRebuildThreads() * RANGES_PER_THREAD;
+            long rangeSize = maxId / rangeCount + 1;
+            for (long afterId = 0; afterId < maxId; afterId += rangeSize) {
+                long from = afterId;
+                ranges.add(executor.submit(() -> userExportRepository.exportBetween(from, from + rangeSize,
+                        this::addRow)));
+            }
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+            index.commit();
+            ready = true;
+        } catch (IOException e) {
+            rollback();
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            rollback();
+            throw new IllegalStateException("Users search index rebuild failed", e.getCause());
+        } catch (InterruptedException e) {
+            rollback();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * A running rebuild stops at its next row and rolls back before the index is closed.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        closing = true;
+        writeLock.lock();
+        try {
+            index.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addRow(ResultSet row) throws SQLException {
+        if (closing) {
+            throw new CancellationException("Users search index is closing");
+        }
+        LocalDate birthDate = row.getObject("birth_date", LocalDate.class);
+        UserResponseDto user = new UserResponseDto(row.getLong("id"), row.getString("email"),
+                row.getString("first_name"), row.getString("last_name"), birthDate,
+                row.getObject("address_id", Long.class), row.getString("street"),
+                row.getObject("house_number", Long.class), row.getString("phone_number"));
+        try {
+            index.add(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rollback() {
+        try {
+            index.rollback();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<UserResponseDto> findAllDtosByIds(Set<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += IDS_CHUNK_SIZE) {
+            users.addAll(userRepository.findAllDtosByIds(
+                    idList.subList(from, Math.min(from + IDS_CHUNK_SIZE, idList.size()))));
+        }
+        return users;
+    }
+}
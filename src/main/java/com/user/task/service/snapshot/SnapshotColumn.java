@@ -0,0 +1,38 @@
+package com.user.task.service.snapshot;
+
+/**
+ * A column file of a snapshot, holding one big-endian value per user row. String columns hold dictionary codes.
+ */
+enum SnapshotColumn {
+    BIRTH_DATE("birth_date.col", Integer.BYTES),
+    ID("id.col", Long.BYTES),
+    EMAIL("email.col", Integer.BYTES),
+    FIRST_NAME("first_name.col", Integer.BYTES),
+    LAST_NAME("last_name.col", Integer.BYTES),
+    PHONE_NUMBER("phone_number.col", Integer.BYTES),
+    ADDRESS_ID("address_id.col", Long.BYTES),
+    STREET("street.col", Integer.BYTES),
+    HOUSE_NUMBER("house_number.col", Long.BYTES);
+
+    static final String DICTIONARY_INDEX = "dictionary.idx";
+    static final String DICTIONARY_DATA = "dictionary.dat";
+    static final int NULL_CODE = -1;
+    static final long NULL_LONG = Long.MIN_VALUE;
+
+    private final String fileName;
+
+    private final int width;
+
+    SnapshotColumn(String fileName, int width) {
+        this.fileName = fileName;
+        this.width = width;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    boolean isLong() {
+        return width == Long.BYTES;
+    }
+}
@@ -0,0 +1,148 @@
+package com.user.task.service.snapshot;
+
+import com.user.task.dto.response.UserResponseDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.user.task.service.snapshot.SnapshotColumn.*;
+
+/**
+ * A read-only, memory-mapped columnar copy of the users, sorted by birth date and id. Rows are read straight
+ * from the page cache, nothing is loaded on the heap until a row is turned into a {@link UserResponseDto}.
+ * Every column file is mapped as a whole, so it can't grow over 2 GB.
+ */
+public class UserSnapshot {
+    private final Path directory;
+
+    private final Instant asOf;
+
+    private final int size;
+
+    private final Map<SnapshotColumn, IntBuffer> intColumns = new EnumMap<>(SnapshotColumn.class);
+
+    private final Map<SnapshotColumn, LongBuffer> longColumns = new EnumMap<>(SnapshotColumn.class);
+
+    private final LongBuffer dictionaryIndex;
+
+    private final ByteBuffer dictionaryData;
+
+    private UserSnapshot(Path directory, Instant asOf) throws IOException {
+        this.directory = directory;
+        this.asOf = asOf;
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            ByteBuffer buffer = map(directory.resolve(column.getFileName()));
+            if (column.isLong()) {
+                longColumns.put(column, buffer.asLongBuffer());
+            } else {
+                intColumns.put(column, buffer.asIntBuffer());
+            }
+        }
+        this.size = intColumns.get(BIRTH_DATE).limit();
+        this.dictionaryIndex = map(directory.resolve(DICTIONARY_INDEX)).asLongBuffer();
+        this.dictionaryData = map(directory.resolve(DICTIONARY_DATA));
+    }
+
+    static UserSnapshot open(Path directory, Instant asOf) throws IOException {
+        return new UserSnapshot(directory, asOf);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The moment the data was read from the database; later changes are not in this snapshot.
+     */
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The first row born on or after the date, or {@link #size()} if there is none.
+     */
+    public int lowerBound(LocalDate date) {
+        IntBuffer birthDates = intColumns.get(BIRTH_DATE);
+        long epochDay = date.toEpochDay();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (birthDates.get(middle) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long getId(int row) {
+        return longColumns.get(ID).get(row);
+    }
+
+    public int getEpochDay(int row) {
+        return intColumns.get(BIRTH_DATE).get(row);
+    }
+
+    public UserResponseDto getUser(int row) {
+        long addressId = getLong(ADDRESS_ID, row);
+        long houseNumber = getLong(HOUSE_NUMBER, row);
+        return new UserResponseDto(getId(row), getString(EMAIL, row), getString(FIRST_NAME, row),
+                getString(LAST_NAME, row), LocalDate.ofEpochDay(getEpochDay(row)),
+                addressId == NULL_LONG ? null : addressId, getString(STREET, row),
+                houseNumber == NULL_LONG ? null : houseNumber, getString(PHONE_NUMBER, row));
+    }
+
+    int getInt(SnapshotColumn column, int row) {
+        return intColumns.get(column).get(row);
+    }
+
+    long getLong(SnapshotColumn column, int row) {
+        return longColumns.get(column).get(row);
+    }
+
+    int getDictionarySize() {
+        return dictionaryIndex.limit() - 1;
+    }
+
+    long getDictionaryLength() {
+        return dictionaryIndex.get(getDictionarySize());
+    }
+
+    void copyDictionary(Path target) throws IOException {
+        Files.copy(directory.resolve(DICTIONARY_INDEX), target.resolve(DICTIONARY_INDEX));
+        Files.copy(directory.resolve(DICTIONARY_DATA), target.resolve(DICTIONARY_DATA));
+    }
+
+    private String getString(SnapshotColumn column, int row) {
+        int code = getInt(column, row);
+        if (code == NULL_CODE) {
+            return null;
+        }
+        int from = (int) dictionaryIndex.get(code);
+        byte[] bytes = new byte[(int) dictionaryIndex.get(code + 1) - from];
+        dictionaryData.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
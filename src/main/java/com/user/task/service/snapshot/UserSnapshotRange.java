@@ -0,0 +1,44 @@
+package com.user.task.service.snapshot;
+
+import com.user.task.dto.response.UserResponseDto;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * The rows {@code [from, to)} of a snapshot, still readable after a newer snapshot replaces it.
+ */
+public class UserSnapshotRange {
+    private final UserSnapshot snapshot;
+
+    private final int from;
+
+    private final int to;
+
+    UserSnapshotRange(UserSnapshot snapshot, int from, int to) {
+        this.snapshot = snapshot;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Instant getAsOf() {
+        return snapshot.getAsOf();
+    }
+
+    public int getCount() {
+        return to - from;
+    }
+
+    public UserResponseDto getUser(int index) {
+        if (index < 0 || index >= getCount()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range of " + getCount() + " users");
+        }
+        return snapshot.getUser(from + index);
+    }
+
+    public void forEach(Consumer<UserResponseDto> consumer) {
+        for (int row = from; row < to; row++) {
+            consumer.accept(snapshot.getUser(row));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.user.task.service.snapshot;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ServiceUnavailableException;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+/**
+ * Keeps a {@link UserSnapshot} of the users for analytical range scans. The first snapshot is exported with
+ * one streaming query; after that only the users changed since the last refresh are read from the database
+ * and merged with the rows of the previous snapshot into a new one.
+ */
+@Service
+@ConditionalOnProperty(name = "users.snapshot.enabled", havingValue = "true")
+public class UserSnapshotService {
+    private static final int IDS_CHUNK_SIZE = 1000;
+    private static final int MAX_DICTIONARY_ENTRIES_PER_ROW = 6;
+    private static final Comparator<UserResponseDto> BIRTH_DATE_ORDER = Comparator
+            .comparing(UserResponseDto::getBirthDate)
+            .thenComparing(UserResponseDto::getId);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Path root;
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+
+    private long generation;
+
+    private volatile UserSnapshot snapshot;
+
+    UserSnapshotService(UserRepository userRepository, AppConfig appConfig,
+                        PlatformTransactionManager transactionManager, Clock clock) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.clock = clock;
+        this.root = Path.of(appConfig.getSnapshotDirectory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (nonNull(event.getUserId())) {
+            changedIds.add(event.getUserId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.snapshot.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        UserSnapshot current = snapshot;
+        if (nonNull(current) && changedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(changedIds);
+        changedIds.removeAll(ids);
+        try {
+            snapshot = isNull(current) || needsRebuild(current) ? build() : merge(current, ids);
+            if (nonNull(current)) {
+                delete(current.getDirectory());
+            }
+        } catch (IOException e) {
+            changedIds.addAll(ids);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            changedIds.addAll(ids);
+            throw e;
+        }
+    }
+
+    public UserSnapshotRange getRange(String from, String to) {
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        dateRangeValidation(fromDate, toDate);
+        UserSnapshot current = snapshot;
+        if (isNull(current)) {
+            throw new ServiceUnavailableException("Users snapshot is not ready yet, try again later");
+        }
+        return new UserSnapshotRange(current, current.lowerBound(fromDate.plusDays(1)), current.lowerBound(toDate));
+    }
+
+    private boolean needsRebuild(UserSnapshot current) {
+        // merges only append to the dictionary, strings of changed rows pile up until the next full export
+        return current.getDictionarySize() > MAX_DICTIONARY_ENTRIES_PER_ROW * (long) current.size();
+    }
+
+    private UserSnapshot build() throws IOException {
+        if (isNull(snapshot)) {
+            delete(root);
+        }
+        Instant asOf = clock.instant();
+        Path directory = nextDirectory();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserResponseDto> users = userRepository.streamAllDtos();
+                 UserSnapshotWriter writer = new UserSnapshotWriter(directory)) {
+                Iterator<UserResponseDto> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    writer.append(iterator.next());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return UserSnapshot.open(directory, asOf);
+    }
+
+    private UserSnapshot merge(UserSnapshot current, Set<Long> ids) throws IOException {
+        Instant asOf = clock.instant();
+        List<UserResponseDto> changed = findAllDtosByIds(ids);
+        changed.sort(BIRTH_DATE_ORDER);
+        Path directory = nextDirectory();
+        try (UserSnapshotWriter writer = new UserSnapshotWriter(directory, current)) {
+            int next = 0;
+            for (int row = 0; row < current.size(); row++) {
+                if (ids.contains(current.getId(row))) {
+                    continue;
+                }
+                while (next < changed.size() && isBefore(changed.get(next), current, row)) {
+                    writer.append(changed.get(next++));
+                }
+                writer.copy(current, row);
+            }
+            while (next < changed.size()) {
+                writer.append(changed.get(next++));
+            }
+        }
+        return UserSnapshot.open(directory, asOf);
+    }
+
+    private List<UserResponseDto> findAllDtosByIds(Set<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += IDS_CHUNK_SIZE) {
+            users.addAll(userRepository.findAllDtosByIds(
+                    idList.subList(from, Math.min(from + IDS_CHUNK_SIZE, idList.size()))));
+        }
+        return users;
+    }
+
+    private static boolean isBefore(UserResponseDto user, UserSnapshot current, int row) {
+        long epochDay = user.getBirthDate().toEpochDay();
+        return epochDay < current.getEpochDay(row)
+                || (epochDay == current.getEpochDay(row) && user.getId() < current.getId(row));
+    }
+
+    private Path nextDirectory() {
+        return root.resolve(String.valueOf(++generation));
+    }
+
+    /**
+     * On POSIX file systems requests still reading the old snapshot keep their mapping after the delete.
+     */
+    private static void delete(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
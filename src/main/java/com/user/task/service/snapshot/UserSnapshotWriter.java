@@ -0,0 +1,135 @@
+package com.user.task.service.snapshot;
+
+import com.user.task.dto.response.LocalAddressResponseDto;
+import com.user.task.dto.response.UserResponseDto;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.user.task.service.snapshot.SnapshotColumn.*;
+import static java.util.Objects.*;
+
+/**
+ * Writes user rows, which must come in birth date and id order, to the column files of a new snapshot.
+ * A writer based on an existing snapshot starts with a copy of its dictionary, so its rows can be copied
+ * by code without decoding a single string.
+ */
+class UserSnapshotWriter implements Closeable {
+    private final Map<SnapshotColumn, DataOutputStream> columns = new EnumMap<>(SnapshotColumn.class);
+
+    private final DataOutputStream dictionaryIndex;
+
+    private final DataOutputStream dictionaryData;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private int dictionarySize;
+
+    private long dictionaryOffset;
+
+    private int lastEpochDay = Integer.MIN_VALUE;
+
+    private long lastId = Long.MIN_VALUE;
+
+    UserSnapshotWriter(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    UserSnapshotWriter(Path directory, UserSnapshot base) throws IOException {
+        Files.createDirectories(directory);
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            columns.put(column, open(directory.resolve(column.getFileName())));
+        }
+        if (isNull(base)) {
+            dictionaryIndex = open(directory.resolve(DICTIONARY_INDEX));
+            dictionaryIndex.writeLong(0);
+        } else {
+            base.copyDictionary(directory);
+            dictionarySize = base.getDictionarySize();
+            dictionaryOffset = base.getDictionaryLength();
+            dictionaryIndex = append(directory.resolve(DICTIONARY_INDEX));
+        }
+        dictionaryData = append(directory.resolve(DICTIONARY_DATA));
+    }
+
+    void append(UserResponseDto user) throws IOException {
+        int epochDay = (int) user.getBirthDate().toEpochDay();
+        checkOrder(epochDay, user.getId());
+        LocalAddressResponseDto address = user.getAddress();
+        columns.get(BIRTH_DATE).writeInt(epochDay);
+        columns.get(ID).writeLong(user.getId());
+        columns.get(EMAIL).writeInt(encode(user.getEmail()));
+        columns.get(FIRST_NAME).writeInt(encode(user.getFirstName()));
+        columns.get(LAST_NAME).writeInt(encode(user.getLastName()));
+        columns.get(PHONE_NUMBER).writeInt(encode(user.getPhoneNumber()));
+        columns.get(ADDRESS_ID).writeLong(isNull(address) ? NULL_LONG : address.getId());
+        columns.get(STREET).writeInt(isNull(address) ? NULL_CODE : encode(address.getStreet()));
+        columns.get(HOUSE_NUMBER).writeLong(isNull(address) || isNull(address.getHouseNumber())
+                ? NULL_LONG : address.getHouseNumber());
+    }
+
+    /**
+     * Copies a row of the snapshot this writer is based on.
+     */
+    void copy(UserSnapshot base, int row) throws IOException {
+        checkOrder(base.getEpochDay(row), base.getId(row));
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            if (column.isLong()) {
+                columns.get(column).writeLong(base.getLong(column, row));
+            } else {
+                columns.get(column).writeInt(base.getInt(column, row));
+            }
+        }
+    }
+
+    private void checkOrder(int epochDay, long id) {
+        if (epochDay < lastEpochDay || (epochDay == lastEpochDay && id <= lastId)) {
+            throw new IllegalArgumentException("User with id " + id + " is out of birth date and id order");
+        }
+        lastEpochDay = epochDay;
+        lastId = id;
+    }
+
+    private int encode(String value) throws IOException {
+        if (isNull(value)) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (isNull(code)) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            dictionaryData.write(bytes);
+            dictionaryOffset += bytes.length;
+            dictionaryIndex.writeLong(dictionaryOffset);
+            code = dictionarySize++;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataOutputStream column : columns.values()) {
+            column.close();
+        }
+        dictionaryIndex.close();
+        dictionaryData.close();
+    }
+
+    private static DataOutputStream open(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private static DataOutputStream append(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+}
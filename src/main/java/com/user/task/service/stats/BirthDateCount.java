@@ -0,0 +1,22 @@
+package com.user.task.service.stats;
+
+import java.time.LocalDate;
+
+public class BirthDateCount {
+    private final LocalDate birthDate;
+
+    private final long count;
+
+    public BirthDateCount(LocalDate birthDate, long count) {
+        this.birthDate = birthDate;
+        this.count = count;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,20 @@
+package com.user.task.service.stats;
+
+public class StreetCount {
+    private final String street;
+
+    private final long count;
+
+    public StreetCount(String street, long count) {
+        this.street = street;
+        this.count = count;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
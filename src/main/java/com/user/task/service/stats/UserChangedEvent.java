@@ -0,0 +1,34 @@
+package com.user.task.service.stats;
+
+import static java.util.Objects.*;
+
+public class UserChangedEvent {
+    private final UserState before;
+
+    private final UserState after;
+
+    public UserChangedEvent(UserState before, UserState after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static UserChangedEvent created(UserState after) {
+        return new UserChangedEvent(null, after);
+    }
+
+    public static UserChangedEvent deleted(UserState before) {
+        return new UserChangedEvent(before, null);
+    }
+
+    public Long getUserId() {
+        return isNull(after) ? before.getId() : after.getId();
+    }
+
+    public UserState getBefore() {
+        return before;
+    }
+
+    public UserState getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,38 @@
+package com.user.task.service.stats;
+
+import com.user.task.model.User;
+
+import java.time.LocalDate;
+
+import static java.util.Objects.*;
+
+public class UserState {
+    private final Long id;
+
+    private final LocalDate birthDate;
+
+    private final String street;
+
+    public UserState(Long id, LocalDate birthDate, String street) {
+        this.id = id;
+        this.birthDate = birthDate;
+        this.street = street;
+    }
+
+    public static UserState of(User user) {
+        return new UserState(user.getId(), user.getBirthDate(),
+                isNull(user.getAddress()) ? null : user.getAddress().getStreet());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+}
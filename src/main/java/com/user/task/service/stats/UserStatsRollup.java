@@ -0,0 +1,80 @@
+package com.user.task.service.stats;
+
+import com.user.task.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static java.util.Objects.*;
+
+/**
+ * User counts by birth date and by street, loaded with GROUP BY queries and then kept up to date from committed
+ * changes. A periodic resync from the database bounds any drift, e.g. from writes made outside this application.
+ */
+@Component
+public class UserStatsRollup {
+    private final UserRepository userRepository;
+
+    private volatile Counts counts = new Counts();
+
+    UserStatsRollup(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${users.stats.resync-interval:PT10M}")
+    public void resync() {
+        Counts fresh = new Counts();
+        userRepository.countGroupedByBirthDate()
+                .forEach(count -> fresh.byBirthDate.put(count.getBirthDate(), count.getCount()));
+        userRepository.countGroupedByStreet()
+                .stream()
+                .filter(count -> nonNull(count.getStreet()))
+                .forEach(count -> fresh.byStreet.put(count.getStreet(), count.getCount()));
+        counts = fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Counts current = counts;
+        if (nonNull(event.getBefore())) {
+            current.add(event.getBefore(), -1);
+        }
+        if (nonNull(event.getAfter())) {
+            current.add(event.getAfter(), 1);
+        }
+    }
+
+    public NavigableMap<LocalDate, Long> getByBirthDate() {
+        return counts.byBirthDate;
+    }
+
+    public Map<String, Long> getByStreet() {
+        return counts.byStreet;
+    }
+
+    private static final class Counts {
+        private final NavigableMap<LocalDate, Long> byBirthDate = new ConcurrentSkipListMap<>();
+
+        private final Map<String, Long> byStreet = new ConcurrentHashMap<>();
+
+        private void add(UserState state, long delta) {
+            if (nonNull(state.getBirthDate())) {
+                byBirthDate.merge(state.getBirthDate(), delta, Counts::sum);
+            }
+            if (nonNull(state.getStreet())) {
+                byStreet.merge(state.getStreet(), delta, Counts::sum);
+            }
+        }
+
+        private static Long sum(Long count, Long delta) {
+            long sum = count + delta;
+            return sum == 0 ? null : sum;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.user.task.util;
+
+import java.util.regex.Pattern;
+
+import static java.util.Objects.*;
+
+public class AddressUtils {
+    private static final Pattern EDGE_SPACES = Pattern.compile("^ +| +$");
+
+    /**
+     * The form addresses are compared in, so {@code (" Main str", 1)} and {@code ("Main str", 1)} are one address.
+     * Only spaces are trimmed, the same as SQL {@code TRIM} did for the addresses stored before. A house number
+     * has no {@code #}, so the last one always separates it from the street.
+     */
+    public static String key(String street, Long houseNumber) {
+        return (isNull(street) ? "" : normalizeStreet(street)) + "#" + (isNull(houseNumber) ? "" : houseNumber);
+    }
+
+    /**
+     * The street as a shared address stores it, whoever spelled it first.
+     */
+    public static String normalizeStreet(String street) {
+        return isNull(street) ? null : EDGE_SPACES.matcher(street).replaceAll("");
+    }
+}
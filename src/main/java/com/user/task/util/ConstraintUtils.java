@@ -0,0 +1,39 @@
+package com.user.task.util;
+
+import java.util.Locale;
+import java.util.Set;
+
+import static java.util.Objects.*;
+
+public class ConstraintUtils {
+    private static final Set<String> EMAIL_CONSTRAINTS = Set.of("uk_users_email_normalized", "uk_users_email");
+    private static final String H2_VIOLATION = "violation: ";
+
+    /**
+     * Whether the violated constraint is one of the unique indexes of the email. H2 names it at the start of the
+     * index description, {@code "PUBLIC.UK_USERS_EMAIL ON PUBLIC.USERS(EMAIL NULLS FIRST) VALUES ..."}, so the
+     * schema and everything after the name are dropped.
+     */
+    public static boolean isEmailConstraint(String constraintName) {
+        if (isNull(constraintName)) {
+            return false;
+        }
+        String name = constraintName.replace("\"", "").trim();
+        int end = name.indexOf(' ');
+        if (end > 0) {
+            name = name.substring(0, end);
+        }
+        return EMAIL_CONSTRAINTS.contains(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The constraint an H2 violation message names, read from it the same way Hibernate does.
+     */
+    public static String fromH2Message(String message) {
+        if (isNull(message)) {
+            return null;
+        }
+        int start = message.indexOf(H2_VIOLATION);
+        return start < 0 ? null : message.substring(start + H2_VIOLATION.length());
+    }
+}
@@ -0,0 +1,14 @@
+package com.user.task.util;
+
+import java.util.Locale;
+
+import static java.util.Objects.*;
+
+public class EmailUtils {
+    /**
+     * The form emails are compared in, so {@code John@Email.com } and {@code john@email.com} are one email.
+     */
+    public static String normalize(String email) {
+        return isNull(email) ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
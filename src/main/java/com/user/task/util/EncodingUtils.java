@@ -0,0 +1,46 @@
+package com.user.task.util;
+
+import java.util.Locale;
+
+import static java.util.Objects.*;
+
+public class EncodingUtils {
+    /**
+     * Whether {@code Accept-Encoding} allows gzip: named, or else covered by {@code *}, with a quality above zero,
+     * so {@code gzip;q=0} refuses it. A quality that can't be read counts as zero.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (isNull(acceptEncoding)) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality(parameters);
+            } else if (name.equals("*")) {
+                any = quality(parameters);
+            }
+        }
+        if (nonNull(gzip)) {
+            return gzip > 0;
+        }
+        return nonNull(any) && any > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 1 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
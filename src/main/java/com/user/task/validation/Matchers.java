@@ -0,0 +1,66 @@
+package com.user.task.validation;
+
+import static com.user.task.util.ValidationUtils.isNot;
+
+public class Matchers {
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private Matchers() {
+    }
+
+    /**
+     * Linear-time equivalent of {@code "^(.+)@(\\S+)$"}: some '@' that has at least one character before it
+     * without line terminators and at least one character after it without whitespace.
+     */
+    public static boolean isEmail(CharSequence email) {
+        int length = email.length();
+        int lastWhitespace = -1;
+        int firstLineTerminator = length;
+        for (int i = length - 1; i >= 0; i--) {
+            char c = email.charAt(i);
+            if (lastWhitespace < 0 && isWhitespace(c)) {
+                lastWhitespace = i;
+            }
+            if (isLineTerminator(c)) {
+                firstLineTerminator = i;
+            }
+        }
+        int last = Math.min(length - 2, firstLineTerminator);
+        for (int i = Math.max(1, lastWhitespace + 1); i <= last; i++) {
+            if (email.charAt(i) == '@') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Optional leading '+' followed by 7 to 15 digits, which may be separated by spaces, dashes and brackets.
+     */
+    public static boolean isPhoneNumber(CharSequence phoneNumber) {
+        int length = phoneNumber.length();
+        int digits = 0;
+        for (int i = length > 0 && phoneNumber.charAt(0) == '+' ? 1 : 0; i < length; i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (isNot(isPhoneSeparator(c))) {
+                return false;
+            }
+        }
+        return digits >= MIN_PHONE_DIGITS && digits <= MAX_PHONE_DIGITS;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isPhoneSeparator(char c) {
+        return c == ' ' || c == '-' || c == '(' || c == ')';
+    }
+}
@@ -4,36 +4,57 @@ import com.user.task.exception.DataProcessingException;
 import com.user.task.model.User;
 
 import java.time.LocalDate;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Objects;
 
 import static com.user.task.util.ValidationUtils.*;
+import static com.user.task.validation.Matchers.*;
 import static java.util.Objects.*;
 
 public class UserValidation {
-    private final static String REGEX_EMAIL = "^(.+)@(\\S+)$";
+    private static final int MAX_SEARCH_WORDS = 8;
+    private static final int MAX_SEARCH_WINDOW = 10_000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
     public static void fullUserValidation(User user) {
-        nullValidation(user);
-        emailValidation(user.getEmail());
-        birthDateValidation(user.getBirthDate());
+        ValidationErrors errors = new ValidationErrors();
+        nullValidation(user, errors);
+        emailValidation(user.getEmail(), errors);
+        birthDateValidation(user.getBirthDate(), errors);
+        phoneNumberValidation(user.getPhoneNumber(), errors);
+        errors.throwIfAny();
     }
 
-    private static void nullValidation(User user) {
+    public static void patchValidation(User user) {
+        ValidationErrors errors = new ValidationErrors();
+        emailValidation(user.getEmail(), errors);
+        birthDateValidation(user.getBirthDate(), errors);
+        phoneNumberValidation(user.getPhoneNumber(), errors);
+        errors.throwIfAny();
+    }
+
+    private static void nullValidation(User user, ValidationErrors errors) {
         if (isNull(user.getEmail()) || isNull(user.getBirthDate())
                 || isNull(user.getFirstName()) || isNull(user.getLastName())) {
-            throw new DataProcessingException("Any of email, birth date, first name or last name fields can't be empty");
+            errors.add("Any of email, birth date, first name or last name fields can't be empty");
         }
     }
 
-    public static void emailValidation(String email) {
-        if (isNot(Pattern.compile(REGEX_EMAIL).matcher(email).matches())) {
-            throw new DataProcessingException("Email " + email + " is not valid");
+    private static void emailValidation(String email, ValidationErrors errors) {
+        if (nonNull(email) && isNot(isEmail(email))) {
+            errors.add("Email " + email + " is not valid");
         }
     }
 
-    public static void birthDateValidation(LocalDate birthDate) {
-        if (LocalDate.now().isBefore(birthDate)) {
-            throw new DataProcessingException("Birth date must be earlier than current date");
+    private static void birthDateValidation(LocalDate birthDate, ValidationErrors errors) {
+        if (nonNull(birthDate) && LocalDate.now().isBefore(birthDate)) {
+            errors.add("Birth date must be earlier than current date");
+        }
+    }
+
+    private static void phoneNumberValidation(String phoneNumber, ValidationErrors errors) {
+        if (nonNull(phoneNumber) && isNot(isPhoneNumber(phoneNumber))) {
+            errors.add("Phone number " + phoneNumber + " is not valid");
         }
     }
 
@@ -42,4 +63,54 @@ public class UserValidation {
             throw new DataProcessingException("From date can't be after To date");
         }
     }
+
+    public static void pageSizeValidation(Integer size, Integer maxSize) {
+        if (size < 1 || size > maxSize) {
+            throw new DataProcessingException("Page size must be between 1 and " + maxSize);
+        }
+    }
+
+    public static void searchQueryValidation(List<String> words) {
+        if (words.isEmpty() || words.size() > MAX_SEARCH_WORDS) {
+            throw new DataProcessingException("Search query must contain between 1 and " + MAX_SEARCH_WORDS
+                    + " words");
+        }
+    }
+
+    public static void searchWindowValidation(Integer page, Integer size) {
+        if (page < 0 || (page + 1L) * size > MAX_SEARCH_WINDOW) {
+            throw new DataProcessingException("Search page must be between 0 and the one ending at result "
+                    + MAX_SEARCH_WINDOW + ", refine the query to go further");
+        }
+    }
+
+    public static void idempotencyKeyValidation(String key) {
+        if (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new DataProcessingException("Idempotency-Key must be between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH
+                    + " characters");
+        }
+    }
+
+    public static void bulkFilterValidation(List<Long> ids, String from, String to, int maxIds) {
+        if (nonNull(ids) == (nonNull(from) || nonNull(to))) {
+            throw new DataProcessingException("Bulk filter must have either ids or from and to");
+        }
+        if (nonNull(ids) && (ids.isEmpty() || ids.size() > maxIds || ids.stream().anyMatch(Objects::isNull))) {
+            throw new DataProcessingException("Bulk filter must have between 1 and " + maxIds + " ids");
+        }
+        if (isNull(ids) && (isNull(from) || isNull(to))) {
+            throw new DataProcessingException("Bulk filter must have both from and to");
+        }
+    }
+
+    public static void bulkPatchValidation(User user) {
+        if (nonNull(user.getEmail())) {
+            throw new DataProcessingException("Email can't be patched in bulk, it is unique per user");
+        }
+        if (isNull(user.getFirstName()) && isNull(user.getLastName()) && isNull(user.getBirthDate())
+                && isNull(user.getAddress()) && isNull(user.getPhoneNumber())) {
+            throw new DataProcessingException("Bulk patch must set at least one field");
+        }
+        patchValidation(user);
+    }
 }
@@ -0,0 +1,28 @@
+package com.user.task.validation;
+
+import com.user.task.exception.DataProcessingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.*;
+
+public class ValidationErrors {
+    private static final String DELIMITER = "; ";
+
+    private List<String> errors;
+
+    public ValidationErrors add(String error) {
+        if (isNull(errors)) {
+            errors = new ArrayList<>(2);
+        }
+        errors.add(error);
+        return this;
+    }
+
+    public void throwIfAny() {
+        if (nonNull(errors)) {
+            throw new DataProcessingException(String.join(DELIMITER, errors));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+CREATE TABLE local_addresses (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    street       VARCHAR(255),
+    house_number BIGINT
+);
+
+CREATE TABLE users (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email            VARCHAR(255),
+    first_name       VARCHAR(255),
+    last_name        VARCHAR(255),
+    birth_date       DATE,
+    local_address_id BIGINT,
+    phone_number     VARCHAR(255),
+    CONSTRAINT uk_users_local_address UNIQUE (local_address_id),
+    CONSTRAINT fk_users_local_address FOREIGN KEY (local_address_id) REFERENCES local_addresses (id)
+);
@@ -0,0 +1,3 @@
+CREATE INDEX idx_users_birth_date_id ON users (birth_date, id);
+
+CREATE UNIQUE INDEX uk_users_email ON users (email);
@@ -0,0 +1,7 @@
+CREATE SEQUENCE local_addresses_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE local_addresses_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM local_addresses);
+ALTER TABLE local_addresses ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
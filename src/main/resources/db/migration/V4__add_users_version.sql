@@ -0,0 +1,4 @@
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+DELETE FROM local_addresses a
+WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.local_address_id = a.id);
@@ -0,0 +1,8 @@
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(255);
+
+-- existing duplicates keep the email, only the oldest of them takes part in the uniqueness check
+UPDATE users u SET email_normalized = LOWER(TRIM(u.email))
+WHERE u.email IS NOT NULL
+  AND u.id = (SELECT MIN(d.id) FROM users d WHERE LOWER(TRIM(d.email)) = LOWER(TRIM(u.email)));
+
+CREATE UNIQUE INDEX uk_users_email_normalized ON users (email_normalized);
@@ -0,0 +1,12 @@
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    fingerprint     VARCHAR(255) NOT NULL,
+    status          INT,
+    location        VARCHAR(255),
+    etag            VARCHAR(64),
+    body            BLOB,
+    created_at      TIMESTAMP    NOT NULL
+);
+
+-- status stays null while the first request with the key is running
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,20 @@
+-- the foreign key uses the unique index, which would outlive the constraint, so it is recreated on a plain one
+ALTER TABLE users DROP CONSTRAINT fk_users_local_address;
+
+ALTER TABLE users DROP CONSTRAINT uk_users_local_address;
+
+CREATE INDEX idx_users_local_address_id ON users (local_address_id);
+
+ALTER TABLE users ADD CONSTRAINT fk_users_local_address FOREIGN KEY (local_address_id)
+    REFERENCES local_addresses (id);
+
+ALTER TABLE local_addresses ADD COLUMN address_key VARCHAR(300);
+
+-- only the oldest of duplicate addresses gets the key, the merge job moves the users of the others onto it
+UPDATE local_addresses a SET address_key = COALESCE(TRIM(a.street), '') || '#'
+    || COALESCE(CAST(a.house_number AS VARCHAR), '')
+WHERE a.id = (SELECT MIN(d.id) FROM local_addresses d
+              WHERE COALESCE(TRIM(d.street), '') = COALESCE(TRIM(a.street), '')
+                AND COALESCE(CAST(d.house_number AS VARCHAR), '') = COALESCE(CAST(a.house_number AS VARCHAR), ''));
+
+CREATE UNIQUE INDEX uk_local_addresses_address_key ON local_addresses (address_key);
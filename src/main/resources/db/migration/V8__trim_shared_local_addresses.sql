@@ -0,0 +1,7 @@
+-- the shared rows kept the street of whoever inserted them first, the users on them get a new version and ETag
+UPDATE users u SET version = version + 1
+WHERE u.local_address_id IN (SELECT a.id FROM local_addresses a
+                             WHERE a.address_key IS NOT NULL AND a.street <> TRIM(a.street));
+
+UPDATE local_addresses SET street = TRIM(street)
+WHERE address_key IS NOT NULL AND street <> TRIM(street);
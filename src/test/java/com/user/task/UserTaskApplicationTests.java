@@ -3,21 +3,51 @@ package com.user.task;
 import com.user.task.config.AppConfig;
 import com.user.task.dto.request.LocalAddressRequestDto;
 import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.dto.response.UserStatsResponseDto;
+import com.user.task.exception.ConflictException;
 import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.PreconditionFailedException;
 import com.user.task.model.LocalAddress;
 import com.user.task.model.User;
-import com.user.task.repository.LocalAddressRepository;
 import com.user.task.repository.UserRepository;
+import com.user.task.service.UserBatchService;
 import com.user.task.service.UserService;
+import com.user.task.service.UserStatsService;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.etag.UserVersion;
 import com.user.task.service.mapper.LocalAddressMapper;
 import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.pagination.UserCursor;
+import com.user.task.service.pagination.UserPage;
+import com.user.task.service.patch.UserField;
+import com.user.task.service.patch.UserPatch;
+import com.user.task.service.patch.UserPatchResult;
+import com.user.task.service.stats.BirthDateCount;
+import com.user.task.service.stats.StreetCount;
+import com.user.task.service.stats.UserStatsRollup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +61,20 @@ class UserTaskApplicationTests {
 
     @Autowired
     UserService userService;
+    @Autowired
+    UserBatchService userBatchService;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    UserStatsService userStatsService;
+    @Autowired
+    UserStatsRollup userStatsRollup;
+    @Autowired
+    Clock clock;
+    @Autowired
+    EmailFilter emailFilter;
     @MockBean
     UserRepository userRepository;
     @MockBean
@@ -38,10 +82,15 @@ class UserTaskApplicationTests {
     @MockBean
     UserMapper userMapper;
     @MockBean
-    LocalAddressRepository localAddressRepository;
+    LocalAddressStore localAddressStore;
     @MockBean
     LocalAddressMapper localAddressMapper;
 
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache(AppConfig.USERS_CACHE).clear();
+    }
+
     @Test
     public void create_Ok() {
         User user = new User();
@@ -51,7 +100,6 @@ class UserTaskApplicationTests {
         user.setBirthDate(DEFAULT_BIRTH_DATE);
 
         when(userMapper.mapToEntity(any())).thenReturn(user);
-        when(appConfig.getRegisterAge()).thenReturn(18);
 
         userService.create(new UserRequestDto());
 
@@ -71,14 +119,13 @@ class UserTaskApplicationTests {
         requestDto.setAddress(address);
 
         when(userMapper.mapToEntity(any())).thenReturn(user);
-        when(appConfig.getRegisterAge()).thenReturn(18);
 
         userService.create(requestDto);
 
         verify(userMapper, times(1)).mapToEntity(any());
         verify(userRepository, times(1)).save(any());
         verify(localAddressMapper, times(1)).mapToEntity(any());
-        verify(localAddressRepository, times(1)).save(any());
+        verify(localAddressStore, times(1)).intern(any());
     }
 
     @Test
@@ -129,7 +176,6 @@ class UserTaskApplicationTests {
         user.setBirthDate(LocalDate.of(2020, 3, 10));
 
         when(userMapper.mapToEntity(any())).thenReturn(user);
-        when(appConfig.getRegisterAge()).thenReturn(18);
 
         String errorMessage = assertThrows(DataProcessingException.class,
                 () -> userService.create(new UserRequestDto())).getMessage();
@@ -146,6 +192,17 @@ class UserTaskApplicationTests {
         verify(userRepository, times(1)).findAllBetweenDates(any(), any());
     }
 
+    @Test
+    public void getAll_Timed_Ok() {
+        userService.getAll("2000-01-01", "2010-01-01");
+
+        Timer timer = meterRegistry.find("users.service")
+                .tags("class", UserService.class.getName(), "method", "getAll", "exception", "none")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
     @Test
     public void getAll_WrongRange_ExceptionThrown() {
         String from = "2010-03-10";
@@ -156,6 +213,265 @@ class UserTaskApplicationTests {
         assertEquals(errorMessage, "From date can't be after To date");
     }
 
+    @Test
+    public void getAllETag_VersionChanged_ETagChanged() {
+        String from = "2000-03-10";
+        String to = "2010-03-10";
+        when(userRepository.streamVersionsBetweenDates(any(), any()))
+                .thenAnswer(invocation -> Stream.of(new UserVersion(1L, 0L), new UserVersion(2L, 0L)))
+                .thenAnswer(invocation -> Stream.of(new UserVersion(1L, 0L), new UserVersion(2L, 0L)))
+                .thenAnswer(invocation -> Stream.of(new UserVersion(1L, 0L), new UserVersion(2L, 1L)))
+                .thenAnswer(invocation -> Stream.of(new UserVersion(1L, 0L)));
+
+        String eTag = userService.getAllETag(from, to);
+
+        assertEquals(eTag, userService.getAllETag(from, to));
+        assertNotEquals(eTag, userService.getAllETag(from, to));
+        assertNotEquals(eTag, userService.getAllETag(from, to));
+        verify(userRepository, never()).findAllDtosBetweenDates(any(), any());
+    }
+
+    @Test
+    public void create_TakenEmail_ExceptionThrown() {
+        when(userMapper.mapToEntity(any())).thenReturn(validUser("Taken@Email.com"));
+        when(userRepository.findIdByEmailNormalized("taken@email.com")).thenReturn(Optional.of(5L));
+
+        emailFilter.put("taken@email.com");
+        String errorMessage = assertThrows(ConflictException.class,
+                () -> userService.create(new UserRequestDto())).getMessage();
+        assertEquals("User with email Taken@Email.com already exists", errorMessage);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void create_NewEmail_NotLookedUp() {
+        when(userMapper.mapToEntity(any())).thenReturn(validUser("never-seen-before@email.com"));
+
+        userService.create(new UserRequestDto());
+
+        verify(userRepository, never()).findIdByEmailNormalized(any());
+        verify(userRepository, times(1)).save(any());
+    }
+
+    @Test
+    public void createAll_Ok() {
+        User user = new User();
+        user.setEmail(DEFAULT_EMAIL);
+        user.setFirstName(DEFAULT_FIRST_NAME);
+        user.setLastName(DEFAULT_LAST_NAME);
+        user.setBirthDate(DEFAULT_BIRTH_DATE);
+        User invalidUser = new User();
+        invalidUser.setEmail("WrongEmail");
+        invalidUser.setFirstName(DEFAULT_FIRST_NAME);
+        invalidUser.setLastName(DEFAULT_LAST_NAME);
+        invalidUser.setBirthDate(DEFAULT_BIRTH_DATE);
+        UserRequestDto requestDto = new UserRequestDto();
+        UserRequestDto invalidRequestDto = new UserRequestDto();
+        UserRequestDto otherRequestDto = new UserRequestDto();
+
+        when(appConfig.getBatchChunkSize()).thenReturn(2);
+        when(userMapper.mapToEntity(requestDto)).thenReturn(user);
+        when(userMapper.mapToEntity(invalidRequestDto)).thenReturn(invalidUser);
+        when(userMapper.mapToEntity(otherRequestDto)).thenReturn(validUser("other@email.com"));
+
+        UserBatchResponseDto response = userBatchService.createAll(
+                List.of(requestDto, invalidRequestDto, otherRequestDto).iterator());
+
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(UserBatchResultDto.Status.FAILED, response.getResults().get(1).getStatus());
+        assertEquals("Email WrongEmail is not valid", response.getResults().get(1).getErrorMessage());
+        verify(userRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void createAll_RepeatedEmail_Failed() {
+        when(appConfig.getBatchChunkSize()).thenReturn(10);
+        when(userMapper.mapToEntity(any())).thenReturn(validUser(DEFAULT_EMAIL), validUser(" Default@Eamil.com"));
+
+        UserBatchResponseDto response = userBatchService.createAll(
+                List.of(new UserRequestDto(), new UserRequestDto()).iterator());
+
+        assertEquals(1, response.getCreated());
+        assertEquals("User with email  Default@Eamil.com is already in the batch",
+                response.getResults().get(1).getErrorMessage());
+    }
+
+    @Test
+    public void createAll_FailedChunk_SavedOneByOne() {
+        User user = new User();
+        user.setEmail(DEFAULT_EMAIL);
+        user.setFirstName(DEFAULT_FIRST_NAME);
+        user.setLastName(DEFAULT_LAST_NAME);
+        user.setBirthDate(DEFAULT_BIRTH_DATE);
+
+        when(appConfig.getBatchChunkSize()).thenReturn(10);
+        when(userMapper.mapToEntity(any())).thenReturn(user, validUser("other@email.com"));
+        when(userRepository.saveAll(any()))
+                .thenThrow(new RuntimeException())
+                .thenReturn(List.of(user))
+                .thenThrow(new DataIntegrityViolationException("uk_users_email"));
+
+        UserBatchResponseDto response = userBatchService.createAll(
+                List.of(new UserRequestDto(), new UserRequestDto()).iterator());
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertFalse(response.getResults().get(1).isRetryable());
+        verify(userRepository, times(3)).saveAll(any());
+    }
+
+    @Test
+    public void createAll_DatabaseUnavailable_Retryable() {
+        when(appConfig.getBatchChunkSize()).thenReturn(10);
+        when(userMapper.mapToEntity(any())).thenReturn(validUser(DEFAULT_EMAIL));
+        when(userRepository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        UserBatchResponseDto response = userBatchService.createAll(List.of(new UserRequestDto()).iterator());
+
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getResults().get(0).isRetryable());
+        assertEquals("User with email " + DEFAULT_EMAIL + " can't be saved right now",
+                response.getResults().get(0).getErrorMessage());
+    }
+
+    @Test
+    public void getPage_Ok() {
+        User first = new User();
+        first.setId(1L);
+        first.setBirthDate(DEFAULT_BIRTH_DATE);
+        User second = new User();
+        second.setId(2L);
+        second.setBirthDate(DEFAULT_BIRTH_DATE);
+
+        when(appConfig.getMaxPageSize()).thenReturn(1000);
+        when(userRepository.findFirstPageBetweenDates(any(), any(), any())).thenReturn(List.of(first, second));
+
+        UserPage page = userService.getPage("2000-03-10", "2010-03-10", null, 1);
+
+        assertEquals(List.of(first), page.getUsers());
+        UserCursor cursor = UserCursor.decode(page.getNextCursor());
+        assertEquals(DEFAULT_BIRTH_DATE, cursor.getBirthDate());
+        assertEquals(1L, cursor.getId());
+    }
+
+    @Test
+    public void getEligiblePage_Ok() {
+        User user = validUser(DEFAULT_EMAIL);
+        user.setId(1L);
+
+        when(appConfig.getMaxPageSize()).thenReturn(1000);
+        when(userRepository.findFirstPageBornUpTo(any(), any())).thenReturn(List.of(user));
+
+        UserPage page = userService.getEligiblePage("2020-01-31", null, 10);
+
+        assertEquals(List.of(user), page.getUsers());
+        assertNull(page.getNextCursor());
+        verify(userRepository, times(1)).findFirstPageBornUpTo(eq(LocalDate.parse("2002-01-31")), any());
+    }
+
+    @Test
+    public void getStats_CreateAndDelete_Ok() {
+        User user = validUser(DEFAULT_EMAIL);
+        user.setId(1L);
+        user.setAddress(new LocalAddress("Main street", 1L));
+
+        userStatsRollup.resync();
+        when(userMapper.mapToEntity(any())).thenReturn(user);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.create(new UserRequestDto());
+        UserStatsResponseDto created = userStatsService.getStats(false);
+        userService.delete(1L);
+        UserStatsResponseDto deleted = userStatsService.getStats(false);
+
+        assertEquals(1, created.getTotal());
+        assertEquals(Map.of("2000-04", 1L), created.getByBirthMonth());
+        assertEquals(Map.of("Main street", 1L), created.getByStreet());
+        assertEquals(1L, created.getByAge().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0, deleted.getTotal());
+        assertTrue(deleted.getByBirthMonth().isEmpty());
+        assertTrue(deleted.getByStreet().isEmpty());
+    }
+
+    @Test
+    public void getStats_Fresh_Ok() {
+        LocalDate adult = LocalDate.now(clock).minusYears(18);
+
+        when(userRepository.countGroupedByBirthDate()).thenReturn(List.of(new BirthDateCount(adult, 2),
+                new BirthDateCount(adult.plusDays(1), 1)));
+        when(userRepository.countGroupedByStreet()).thenReturn(List.of(new StreetCount("Main street", 3),
+                new StreetCount(null, 1)));
+
+        UserStatsResponseDto stats = userStatsService.getStats(true);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(1L, stats.getByAge().get("0-17"));
+        assertEquals(2L, stats.getByAge().get("18-24"));
+        assertEquals(0L, stats.getByAge().get("65+"));
+        assertEquals(Map.of("Main street", 3L), stats.getByStreet());
+    }
+
+    @Test
+    public void getPage_NextPage_Ok() {
+        String cursor = new UserCursor(DEFAULT_BIRTH_DATE, 7L).encode();
+
+        when(appConfig.getPageSize()).thenReturn(100);
+        when(appConfig.getMaxPageSize()).thenReturn(1000);
+
+        UserPage page = userService.getPage("2000-03-10", "2010-03-10", cursor, null);
+
+        assertNull(page.getNextCursor());
+        verify(userRepository, times(1))
+                .findPageBetweenDatesAfter(any(), any(), eq(DEFAULT_BIRTH_DATE), eq(7L), any());
+    }
+
+    @Test
+    public void getPage_WrongCursor_ExceptionThrown() {
+        when(appConfig.getPageSize()).thenReturn(100);
+        when(appConfig.getMaxPageSize()).thenReturn(1000);
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userService.getPage("2000-03-10", "2010-03-10", "wrong", null)).getMessage();
+        assertEquals(errorMessage, "Cursor wrong is not valid");
+    }
+
+    @Test
+    public void getPage_WrongSize_ExceptionThrown() {
+        when(appConfig.getMaxPageSize()).thenReturn(1000);
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userService.getPage("2000-03-10", "2010-03-10", null, 5000)).getMessage();
+        assertEquals(errorMessage, "Page size must be between 1 and 1000");
+    }
+
+    @Test
+    public void get_Cached_Ok() {
+        User user = new User();
+        user.setId(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.get(1L));
+        assertSame(user, userService.get(1L));
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void delete_CacheEvicted_Ok() {
+        User user = new User();
+        user.setId(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.get(1L);
+        userService.delete(1L);
+
+        assertNull(cacheManager.getCache(AppConfig.USERS_CACHE).get(1L));
+        verify(userRepository, times(1)).delete(user);
+    }
+
     @Test
     public void update_Ok() {
         User oldUser = new User();
@@ -170,10 +486,9 @@ class UserTaskApplicationTests {
         newUser.setBirthDate(LocalDate.of(2000, 12, 31));
 
         when(userMapper.mapToEntity(any())).thenReturn(newUser);
-        when(appConfig.getRegisterAge()).thenReturn(18);
         when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
 
-        userService.update(1L, new UserRequestDto());
+        userService.update(1L, new UserRequestDto(), null);
 
         verify(userMapper, times(1)).mapToEntity(any());
         verify(userRepository, times(1)).findById(any());
@@ -198,15 +513,82 @@ class UserTaskApplicationTests {
         newUser.setAddress(address);
 
         when(userMapper.mapToEntity(any())).thenReturn(newUser);
-        when(appConfig.getRegisterAge()).thenReturn(18);
         when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
 
-        userService.update(1L, new UserRequestDto());
+        userService.update(1L, new UserRequestDto(), null);
 
         verify(userMapper, times(1)).mapToEntity(any());
         verify(userRepository, times(1)).findById(any());
         verify(userRepository, times(1)).save(any());
-        verify(localAddressRepository, times(1)).save(any());
+        verify(localAddressStore, times(1)).intern(address);
+    }
+
+    @Test
+    public void update_ExistingAddress_SharedAddressUsed() {
+        User oldUser = validUser(DEFAULT_EMAIL);
+        LocalAddress oldAddress = new LocalAddress("Old street", 2L);
+        oldAddress.setId(5L);
+        oldUser.setAddress(oldAddress);
+        User newUser = validUser("newDefault@email.com");
+        newUser.setAddress(new LocalAddress("Street", 1L));
+
+        when(userMapper.mapToEntity(any())).thenReturn(newUser);
+        when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalAddress sharedAddress = new LocalAddress("Street", 1L);
+        sharedAddress.setId(7L);
+        when(localAddressStore.intern(newUser.getAddress())).thenReturn(sharedAddress);
+
+        User updated = userService.update(1L, new UserRequestDto(), null);
+
+        assertSame(sharedAddress, updated.getAddress());
+        assertEquals("Old street", oldAddress.getStreet());
+        assertEquals(2L, oldAddress.getHouseNumber());
+    }
+
+    @Test
+    public void update_WrongVersion_ExceptionThrown() {
+        User oldUser = validUser(DEFAULT_EMAIL);
+        oldUser.setVersion(3L);
+
+        when(userMapper.mapToEntity(any())).thenReturn(validUser(DEFAULT_EMAIL));
+        when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
+
+        String errorMessage = assertThrows(PreconditionFailedException.class,
+                () -> userService.update(1L, new UserRequestDto(), 2L)).getMessage();
+        assertEquals("User with id 1 has version 3, not 2", errorMessage);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void update_ConcurrentModification_Retried() {
+        when(userMapper.mapToEntity(any())).thenReturn(validUser(DEFAULT_EMAIL));
+        when(appConfig.getUpdateMaxRetries()).thenReturn(3);
+        when(userRepository.findById(any())).thenReturn(Optional.of(validUser(DEFAULT_EMAIL)));
+        when(userRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.update(1L, new UserRequestDto(), null);
+
+        verify(userRepository, times(2)).findById(any());
+        verify(userRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void patch_RetriesExhausted_ExceptionThrown() {
+        User newUser = new User();
+        newUser.setAddress(new LocalAddress("Street", 1L));
+
+        when(userMapper.mapToEntity(any())).thenReturn(newUser);
+        when(appConfig.getUpdateMaxRetries()).thenReturn(2);
+        when(userRepository.findById(any())).thenReturn(Optional.of(validUser(DEFAULT_EMAIL)));
+        when(userRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        String errorMessage = assertThrows(ConflictException.class,
+                () -> userService.patch(1L, new UserRequestDto(), null)).getMessage();
+        assertEquals("User with id 1 was modified concurrently, try again", errorMessage);
+        verify(userRepository, times(3)).save(any());
     }
 
     @Test
@@ -214,7 +596,7 @@ class UserTaskApplicationTests {
         when(userMapper.mapToEntity(any())).thenReturn(new User());
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.update(1L, new UserRequestDto())).getMessage();
+                () -> userService.update(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "Any of email, birth date, first name or last name fields can't be empty");
     }
 
@@ -229,7 +611,7 @@ class UserTaskApplicationTests {
         when(userMapper.mapToEntity(any())).thenReturn(user);
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.update(1L, new UserRequestDto())).getMessage();
+                () -> userService.update(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "Email WrongEmail is not valid");
     }
 
@@ -244,7 +626,7 @@ class UserTaskApplicationTests {
         when(userMapper.mapToEntity(any())).thenReturn(user);
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.update(1L, new UserRequestDto())).getMessage();
+                () -> userService.update(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "Birth date must be earlier than current date");
     }
 
@@ -257,32 +639,88 @@ class UserTaskApplicationTests {
         user.setBirthDate(LocalDate.of(2020, 3, 10));
 
         when(userMapper.mapToEntity(any())).thenReturn(user);
-        when(appConfig.getRegisterAge()).thenReturn(18);
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.update(1L, new UserRequestDto())).getMessage();
+                () -> userService.update(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "User must be older than 18 years old");
     }
 
     @Test
     public void patch_Ok() {
-        User oldUser = new User();
-        oldUser.setEmail(DEFAULT_EMAIL);
-        oldUser.setFirstName(DEFAULT_FIRST_NAME);
-        oldUser.setLastName(DEFAULT_LAST_NAME);
-        oldUser.setBirthDate(DEFAULT_BIRTH_DATE);
         User newUser = new User();
-        newUser.setEmail("newDefault@email.com");
+        newUser.setPhoneNumber("+380671852382");
+        User patchedUser = validUser(DEFAULT_EMAIL);
+        patchedUser.setPhoneNumber("+380671852382");
 
         when(userMapper.mapToEntity(any())).thenReturn(newUser);
-        when(appConfig.getRegisterAge()).thenReturn(18);
-        when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
+        when(userRepository.patch(eq(1L), isNull(), any())).thenReturn(1);
+        when(userRepository.findById(any())).thenReturn(Optional.of(patchedUser));
 
-        userService.patch(1L, new UserRequestDto());
+        UserPatchResult result = userService.patch(1L, new UserRequestDto(), null);
 
-        verify(userMapper, times(1)).mapToEntity(any());
-        verify(userRepository, times(1)).findById(any());
-        verify(userRepository, times(1)).save(any());
+        assertTrue(result.isModified());
+        assertSame(patchedUser, result.getUser());
+        ArgumentCaptor<UserPatch> patch = ArgumentCaptor.forClass(UserPatch.class);
+        verify(userRepository, times(1)).patch(eq(1L), isNull(), patch.capture());
+        assertEquals(EnumSet.of(UserField.PHONE_NUMBER), patch.getValue().getFields());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_Empty_NotModified() {
+        when(userMapper.mapToEntity(any())).thenReturn(new User());
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        UserPatchResult result = userService.patch(1L, new UserRequestDto(), null);
+
+        assertFalse(result.isModified());
+        assertEquals(4L, result.getVersion());
+        verify(userRepository, never()).patch(any(), any(), any());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void patch_SameValues_NotModified() {
+        User newUser = new User();
+        newUser.setFirstName(DEFAULT_FIRST_NAME);
+
+        when(userMapper.mapToEntity(any())).thenReturn(newUser);
+        when(userRepository.patch(eq(1L), eq(2L), any())).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+
+        UserPatchResult result = userService.patch(1L, new UserRequestDto(), 2L);
+
+        assertFalse(result.isModified());
+        assertEquals(2L, result.getVersion());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void patch_WrongVersion_ExceptionThrown() {
+        User newUser = new User();
+        newUser.setFirstName("Mark");
+
+        when(userMapper.mapToEntity(any())).thenReturn(newUser);
+        when(userRepository.patch(eq(1L), eq(2L), any())).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        String errorMessage = assertThrows(PreconditionFailedException.class,
+                () -> userService.patch(1L, new UserRequestDto(), 2L)).getMessage();
+        assertEquals("User with id 1 has version 3, not 2", errorMessage);
+    }
+
+    @Test
+    public void patch_NoSuchUser_ExceptionThrown() {
+        User newUser = new User();
+        newUser.setFirstName("Mark");
+
+        when(userMapper.mapToEntity(any())).thenReturn(newUser);
+        when(userRepository.patch(eq(1L), isNull(), any())).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userService.patch(1L, new UserRequestDto(), null)).getMessage();
+        assertEquals("There is no such user with id 1", errorMessage);
     }
 
     @Test
@@ -299,15 +737,14 @@ class UserTaskApplicationTests {
         newUser.setAddress(address);
 
         when(userMapper.mapToEntity(any())).thenReturn(newUser);
-        when(appConfig.getRegisterAge()).thenReturn(18);
         when(userRepository.findById(any())).thenReturn(Optional.of(oldUser));
 
-        userService.patch(1L, new UserRequestDto());
+        userService.patch(1L, new UserRequestDto(), null);
 
         verify(userMapper, times(1)).mapToEntity(any());
         verify(userRepository, times(1)).findById(any());
         verify(userRepository, times(1)).save(any());
-        verify(localAddressRepository, times(1)).save(any());
+        verify(localAddressStore, times(1)).intern(address);
     }
 
     @Test
@@ -319,7 +756,7 @@ class UserTaskApplicationTests {
         when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.patch(1L, new UserRequestDto())).getMessage();
+                () -> userService.patch(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "Email WrongEmail is not valid");
     }
 
@@ -332,7 +769,7 @@ class UserTaskApplicationTests {
         when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.patch(1L, new UserRequestDto())).getMessage();
+                () -> userService.patch(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "Birth date must be earlier than current date");
     }
 
@@ -342,11 +779,19 @@ class UserTaskApplicationTests {
         user.setBirthDate(LocalDate.of(2020, 3, 10));
 
         when(userMapper.mapToEntity(any())).thenReturn(user);
-        when(appConfig.getRegisterAge()).thenReturn(18);
         when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
 
         String errorMessage = assertThrows(DataProcessingException.class,
-                () -> userService.patch(1L, new UserRequestDto())).getMessage();
+                () -> userService.patch(1L, new UserRequestDto(), null)).getMessage();
         assertEquals(errorMessage, "User must be older than 18 years old");
     }
+
+    private User validUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName(DEFAULT_FIRST_NAME);
+        user.setLastName(DEFAULT_LAST_NAME);
+        user.setBirthDate(DEFAULT_BIRTH_DATE);
+        return user;
+    }
 }
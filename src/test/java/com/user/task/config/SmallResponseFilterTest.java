@@ -0,0 +1,163 @@
+package com.user.task.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SmallResponseFilterTest {
+    private static final int THRESHOLD = 10;
+
+    private final SmallResponseFilter filter = new SmallResponseFilter(THRESHOLD);
+
+    @Test
+    public void doFilter_SmallResponse_ContentLengthSet() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new WritingServlet(8)));
+
+        assertEquals(8, response.getContentLength());
+        assertEquals(8, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void doFilter_BigResponse_Streamed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new WritingServlet(16)));
+
+        assertEquals(0, response.getContentLength());
+        assertTrue(response.isCommitted());
+        assertEquals(16, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void doFilter_GzipRefused_Streamed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new WritingServlet(8)));
+
+        assertEquals(0, response.getContentLength());
+        assertTrue(response.isCommitted());
+    }
+
+    @Test
+    public void doFilter_AsyncStarted_Released() throws Exception {
+        MockHttpServletRequest request = gzipRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        OutputStream[] out = new OutputStream[1];
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                out[0] = response.getOutputStream();
+                out[0].write(new byte[4]);
+                request.startAsync();
+            }
+        }));
+        out[0].write(new byte[2]);
+
+        assertEquals(0, response.getContentLength());
+        assertEquals(6, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void setWriteListener_Buffered_ReleasedAndPassedOn() throws Exception {
+        ListeningResponse response = new ListeningResponse(new MockHttpServletResponse());
+        WriteListener listener = mock(WriteListener.class);
+
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletOutputStream out = response.getOutputStream();
+                out.write(new byte[4]);
+                out.setWriteListener(listener);
+                assertTrue(out.isReady());
+                out.write(new byte[2]);
+            }
+        }));
+
+        assertSame(listener, response.listener);
+        assertEquals(6, ((MockHttpServletResponse) response.getResponse()).getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        return request;
+    }
+
+    /**
+     * Keeps the listener a non-blocking write sets, the mock response doesn't take one.
+     */
+    private static class ListeningResponse extends HttpServletResponseWrapper {
+        private WriteListener listener;
+
+        ListeningResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            ServletOutputStream out = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    listener = writeListener;
+                }
+            };
+        }
+    }
+
+    /**
+     * Writes and flushes in chunks of four bytes, as a message converter flushes before the body is complete.
+     */
+    private static class WritingServlet extends HttpServlet {
+        private final int length;
+
+        WritingServlet(int length) {
+            this.length = length;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            OutputStream out = response.getOutputStream();
+            for (int i = 0; i < length; i += 4) {
+                out.write(new byte[4]);
+                out.flush();
+            }
+            response.flushBuffer();
+        }
+    }
+}
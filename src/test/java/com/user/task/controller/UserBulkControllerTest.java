@@ -0,0 +1,53 @@
+package com.user.task.controller;
+
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.service.bulk.UserBulkService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserBulkController.class)
+@Import(SimpleMeterRegistry.class)
+class UserBulkControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @MockBean
+    UserBulkService userBulkService;
+
+    @Test
+    public void patchAll_Conflict_MappedAndCounted() throws Exception {
+        when(userBulkService.patch(any())).thenThrow(new ConflictException("Another bulk operation is running"));
+
+        mockMvc.perform(patch("/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Another bulk operation is running"));
+
+        assertEquals(1, meterRegistry.counter("users.errors", "exception", "ConflictException",
+                "status", "409").count());
+    }
+
+    @Test
+    public void get_Unknown_ExceptionThrown() throws Exception {
+        when(userBulkService.get("x"))
+                .thenThrow(new DataProcessingException("There is no such bulk operation with id x"));
+
+        mockMvc.perform(get("/users/bulk/x"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("There is no such bulk operation with id x"));
+    }
+}
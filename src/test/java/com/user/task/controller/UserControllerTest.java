@@ -0,0 +1,184 @@
+package com.user.task.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.user.task.config.ClockConfig;
+import com.user.task.config.WireFormatConfig;
+import com.user.task.model.User;
+import com.user.task.repository.IdempotencyKeyRepository;
+import com.user.task.service.UserBatchService;
+import com.user.task.service.UserService;
+import com.user.task.service.UserStatsService;
+import com.user.task.service.creation.UserCreationService;
+import com.user.task.service.export.UserExportService;
+import com.user.task.service.idempotency.IdempotencyService;
+import com.user.task.service.mapper.LocalAddressMapper;
+import com.user.task.service.mapper.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static com.user.task.service.idempotency.IdempotencyService.IDEMPOTENCY_KEY;
+import static com.user.task.service.idempotency.IdempotencyService.IDEMPOTENT_REPLAYED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserController.class)
+@Import({WireFormatConfig.class, ClockConfig.class, IdempotencyService.class, UserMapper.class,
+        LocalAddressMapper.class, SimpleMeterRegistry.class})
+class UserControllerTest {
+    private static final String BODY = """
+            {"email": "john@email.com", "firstName": "John", "lastName": "Johnson", "birthDate": "2000-04-20"}""";
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @MockBean
+    UserService userService;
+    @MockBean
+    UserBatchService userBatchService;
+    @MockBean
+    UserStatsService userStatsService;
+    @MockBean
+    UserExportService userExportService;
+    @MockBean
+    UserCreationService userCreationService;
+    @MockBean
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User("john@email.com", "John", "Johnson", LocalDate.parse("2000-04-20"), null);
+        user.setId(1L);
+        user.setVersion(5L);
+        when(userService.get(1L)).thenReturn(user);
+        User updated = new User("john@email.com", "John", "Johnson", LocalDate.parse("2000-04-20"), null);
+        updated.setId(1L);
+        updated.setVersion(6L);
+        when(userService.update(eq(1L), any(), any())).thenReturn(updated);
+        when(userService.create(any())).thenReturn(user);
+        when(userCreationService.isEnabled()).thenReturn(false);
+    }
+
+    @Test
+    public void create_RepeatedInCbor_ReplayedInCbor() throws Exception {
+        byte[] first = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] repeated = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-cbor\""))
+                .andExpect(header().string(IDEMPOTENT_REPLAYED, "true"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] repeatedJson = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        verify(userService, times(1)).create(any());
+        assertEquals(objectMapper.readTree(first), objectMapper.copyWith(new CBORFactory()).readTree(repeated));
+        assertArrayEquals(first, repeatedJson);
+    }
+
+    @Test
+    public void create_EmailTakenConcurrently_Conflict() throws Exception {
+        when(userService.create(any())).thenThrow(violation(
+                "\"PUBLIC.UK_USERS_EMAIL_NORMALIZED ON PUBLIC.USERS(EMAIL_NORMALIZED NULLS FIRST) VALUES ( 1 )\""));
+
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("User with the same email already exists"));
+    }
+
+    @Test
+    public void create_OtherConstraintViolated_NotConflict() {
+        DataIntegrityViolationException violation = violation("fk_users_local_address");
+        when(userService.create(any())).thenThrow(violation);
+
+        ServletException e = assertThrows(ServletException.class, () ->
+                mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(BODY)));
+
+        assertSame(violation, e.getCause());
+    }
+
+    @Test
+    public void update_CborETag_VersionMatched() throws Exception {
+        String eTag = mockMvc.perform(get("/users/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-cbor\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/users/1").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6-cbor\""));
+
+        verify(userService).update(eq(1L), any(), eq(5L));
+    }
+
+    @Test
+    public void update_GzipClientETag_VersionMatched() throws Exception {
+        String eTag = mockMvc.perform(get("/users/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/users/1").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+
+        verify(userService).update(eq(1L), any(), eq(5L));
+    }
+
+    @Test
+    public void update_WeakIfMatch_PreconditionFailed() throws Exception {
+        mockMvc.perform(put("/users/1").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(HttpHeaders.IF_MATCH, "W/\"5\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("If-Match W/\"5\" is weak, send the strong ETag of the user"));
+
+        verify(userService, never()).update(any(), any(), any());
+    }
+
+    @Test
+    public void update_ForeignIfMatch_ExceptionThrown() throws Exception {
+        mockMvc.perform(put("/users/1").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                        .header(HttpHeaders.IF_MATCH, "\"5-xml\""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("If-Match \"5-xml\" is not valid"));
+
+        verify(userService, never()).update(any(), any(), any());
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
+}
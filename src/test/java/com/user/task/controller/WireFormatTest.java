@@ -0,0 +1,28 @@
+package com.user.task.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+    @Test
+    public void of_AcceptHeader_PreferredFormat() throws Exception {
+        assertEquals(WireFormat.JSON, WireFormat.of(request(null)));
+        assertEquals(WireFormat.JSON, WireFormat.of(request("*/*")));
+        assertEquals(WireFormat.CBOR, WireFormat.of(request("application/cbor")));
+        assertEquals(WireFormat.SMILE, WireFormat.of(request("application/x-jackson-smile, */*;q=0.1")));
+        assertEquals(WireFormat.JSON, WireFormat.of(request("application/cbor;q=0.5, application/json")));
+        assertEquals("5-cbor", WireFormat.CBOR.eTag("5"));
+    }
+
+    private static ServletWebRequest request(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return new ServletWebRequest(request);
+    }
+}
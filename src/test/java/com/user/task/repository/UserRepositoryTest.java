@@ -0,0 +1,179 @@
+package com.user.task.repository;
+
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.service.etag.UserVersion;
+import com.user.task.service.stats.BirthDateCount;
+import com.user.task.service.stats.UserState;
+import com.user.task.service.patch.UserPatch;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTest {
+    private static final int USERS_COUNT = 10_000;
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.parse("1980-01-01");
+    private static final LocalDate FROM = FIRST_BIRTH_DATE.minusDays(1);
+    private static final LocalDate TO = FIRST_BIRTH_DATE.plusDays(USERS_COUNT);
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Long firstUserId;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < USERS_COUNT; i++) {
+            LocalAddress address = entityManager.persist(new LocalAddress("Street " + i, (long) i));
+            User user = new User("user" + i + "@email.com", "John", "Johnson", FIRST_BIRTH_DATE.plusDays(i), null);
+            user.setAddress(address);
+            entityManager.persist(user);
+            if (i == 0) {
+                firstUserId = user.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findAllBetweenDates_SingleStatement_Ok() {
+        List<User> users = userRepository.findAllBetweenDates(FROM, TO);
+
+        users.forEach(user -> assertNotNull(user.getAddress().getStreet()));
+        assertEquals(USERS_COUNT, users.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void findAllDtosBetweenDates_SingleStatement_Ok() {
+        List<UserResponseDto> users = userRepository.findAllDtosBetweenDates(FROM, TO);
+
+        users.forEach(user -> assertNotNull(user.getAddress().getStreet()));
+        assertEquals(USERS_COUNT, users.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void streamVersionsBetweenDates_ResponseOrder_NoEntitiesLoaded() {
+        List<Long> ids;
+        try (Stream<UserVersion> versions = userRepository.streamVersionsBetweenDates(FROM, TO)) {
+            ids = versions.map(UserVersion::getId).toList();
+        }
+
+        assertEquals(userRepository.findAllDtosBetweenDates(FROM, TO).stream().map(UserResponseDto::getId).toList(),
+                ids);
+        assertEquals(USERS_COUNT, ids.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void countGroupedByBirthDate_SingleStatement_Ok() {
+        List<BirthDateCount> counts = userRepository.countGroupedByBirthDate();
+
+        assertEquals(USERS_COUNT, counts.size());
+        assertEquals(USERS_COUNT, counts.stream().mapToLong(BirthDateCount::getCount).sum());
+        assertEquals(USERS_COUNT, userRepository.countGroupedByStreet().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void save_SameNormalizedEmail_ExceptionThrown() {
+        User user = new User(" USER0@Email.com", "John", "Johnson", FIRST_BIRTH_DATE, null);
+
+        assertEquals(firstUserId, userRepository.findIdByEmailNormalized("user0@email.com").orElseThrow());
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user));
+    }
+
+    @Test
+    public void patch_SingleStatement_Ok() {
+        User values = new User();
+        values.setPhoneNumber("+380671852382");
+
+        int updated = userRepository.patch(firstUserId, 0L, UserPatch.of(values));
+
+        assertEquals(1, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        User user = entityManager.find(User.class, firstUserId);
+        assertEquals("+380671852382", user.getPhoneNumber());
+        assertEquals("user0@email.com", user.getEmail());
+        assertEquals(1L, user.getVersion());
+    }
+
+    @Test
+    public void patch_SameValuesOrOtherVersion_NotUpdated() {
+        User sameValues = new User();
+        sameValues.setFirstName("John");
+        User newValues = new User();
+        newValues.setFirstName("Mark");
+
+        assertEquals(0, userRepository.patch(firstUserId, null, UserPatch.of(sameValues)));
+        assertEquals(0, userRepository.patch(firstUserId, 1L, UserPatch.of(newValues)));
+        assertEquals(0L, entityManager.find(User.class, firstUserId).getVersion());
+    }
+
+    @Test
+    public void patchAll_Chunk_SingleStatement() {
+        List<Long> ids = List.of(firstUserId, firstUserId + 1, firstUserId + 2);
+        entityManager.getEntityManager().createQuery("UPDATE User u SET u.lastName = 'Smith' WHERE u.id = ?1")
+                .setParameter(1, firstUserId)
+                .executeUpdate();
+        LocalAddress address = entityManager.find(LocalAddress.class,
+                entityManager.find(User.class, firstUserId).getAddress().getId());
+        User values = new User();
+        values.setLastName("Smith");
+        values.setAddress(address);
+        statistics.clear();
+
+        int updated = userRepository.patchAll(ids, UserPatch.of(values));
+
+        assertEquals(2, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        for (Long id : ids) {
+            User user = entityManager.find(User.class, id);
+            assertEquals("Smith", user.getLastName());
+            assertEquals(address.getId(), user.getAddress().getId());
+            assertEquals(id.equals(firstUserId) ? 0L : 1L, user.getVersion());
+        }
+    }
+
+    @Test
+    public void deleteByIdIn_Chunk_SingleStatement() {
+        List<Long> ids = userRepository.findIdsBetweenDatesAfter(FROM, TO, firstUserId, PageRequest.of(0, 100));
+        List<UserState> states = userRepository.findStatesByIdIn(ids);
+
+        int deleted = userRepository.deleteByIdIn(ids);
+
+        assertEquals(100, deleted);
+        assertEquals(firstUserId + 1, ids.get(0));
+        assertEquals("Street 1", states.stream().filter(state -> state.getId().equals(ids.get(0))).findFirst()
+                .orElseThrow().getStreet());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(USERS_COUNT - 100, userRepository.countBetweenDates(FROM, TO));
+    }
+}
@@ -0,0 +1,82 @@
+package com.user.task.service;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.model.User;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.stats.UserChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs outside a test transaction, a chunk has to roll back for real before its users are saved one by one.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBatchServiceTest {
+    private static final LocalDate BIRTH_DATE = LocalDate.parse("2000-04-20");
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+
+    private final AppConfig appConfig = mock(AppConfig.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void createAll_OneRowOfChunkFailed_OthersSavedWithIds() {
+        userRepository.save(user("taken@email.com"));
+        when(appConfig.getBatchChunkSize()).thenReturn(10);
+        when(userMapper.mapToEntity(any())).thenReturn(user("first@email.com"), user("taken@email.com"),
+                user("third@email.com"));
+        UserBatchService userBatchService = new UserBatchService(userRepository, mock(LocalAddressStore.class),
+                userMapper, appConfig, transactionManager, mock(UserEligibility.class), eventPublisher,
+                mock(EmailFilter.class));
+
+        UserBatchResponseDto response = userBatchService.createAll(
+                List.of(new UserRequestDto(), new UserRequestDto(), new UserRequestDto()).iterator());
+
+        List<UserBatchResultDto> results = response.getResults();
+        assertEquals(2, response.getCreated());
+        assertNotNull(results.get(0).getId());
+        assertNotNull(results.get(2).getId());
+        assertNull(results.get(1).getId());
+        assertEquals(3, userRepository.count());
+        ArgumentCaptor<UserChangedEvent> events = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher, atLeast(2)).publishEvent(events.capture());
+        List<Long> eventIds = events.getAllValues().stream().map(UserChangedEvent::getUserId).toList();
+        assertTrue(eventIds.containsAll(List.of(results.get(0).getId(), results.get(2).getId())));
+    }
+
+    private static User user(String email) {
+        return new User(email, "John", "Johnson", BIRTH_DATE, null);
+    }
+}
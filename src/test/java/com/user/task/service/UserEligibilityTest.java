@@ -0,0 +1,81 @@
+package com.user.task.service;
+
+import com.user.task.exception.DataProcessingException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEligibilityTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Kyiv");
+
+    @Test
+    public void check_Birthday_Ok() {
+        UserEligibility eligibility = eligibility(new MutableClock(LocalDateTime.parse("2026-03-10T12:00")));
+
+        eligibility.check(LocalDate.parse("2008-03-10"));
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> eligibility.check(LocalDate.parse("2008-03-11"))).getMessage();
+        assertEquals("User must be older than 18 years old", errorMessage);
+    }
+
+    @Test
+    public void check_LeapDayBirthday_Ok() {
+        MutableClock clock = new MutableClock(LocalDateTime.parse("2026-02-28T12:00"));
+        UserEligibility eligibility = eligibility(clock);
+
+        assertThrows(DataProcessingException.class, () -> eligibility.check(LocalDate.parse("2008-02-29")));
+        clock.set(LocalDateTime.parse("2026-03-01T00:00"));
+        eligibility.check(LocalDate.parse("2008-02-29"));
+    }
+
+    @Test
+    public void check_DayRollover_Refreshed() {
+        MutableClock clock = new MutableClock(LocalDateTime.parse("2026-03-10T23:59:59"));
+        UserEligibility eligibility = eligibility(clock);
+
+        assertThrows(DataProcessingException.class, () -> eligibility.check(LocalDate.parse("2008-03-11")));
+        clock.set(LocalDateTime.parse("2026-03-11T00:00"));
+        eligibility.check(LocalDate.parse("2008-03-11"));
+    }
+
+    @Test
+    public void cutoffDate_Ok() {
+        UserEligibility eligibility = eligibility(new MutableClock(LocalDateTime.parse("2026-03-10T12:00")));
+
+        assertEquals(LocalDate.parse("2002-01-31"), eligibility.cutoffDate(LocalDate.parse("2020-01-31")));
+    }
+
+    private UserEligibility eligibility(Clock clock) {
+        return new UserEligibility(clock, new MockEnvironment().withProperty("register.age", "18"));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime dateTime) {
+            set(dateTime);
+        }
+
+        void set(LocalDateTime dateTime) {
+            instant = dateTime.atZone(ZONE).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.user.task.service.address;
+
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.repository.CanonicalAddressRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(CanonicalAddressRepository.class)
+class LocalAddressStoreTest {
+    private static final long DUPLICATE_ID = 1_000_000L;
+
+    @Autowired
+    CanonicalAddressRepository canonicalAddressRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TestEntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private LocalAddressStore localAddressStore;
+
+    @BeforeEach
+    public void setUp() {
+        localAddressStore = new LocalAddressStore(canonicalAddressRepository, new MockEnvironment(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void internAll_SameAddress_OneRow() {
+        Map<String, LocalAddress> addresses = localAddressStore.internAll(List.of(
+                new LocalAddress("Shevchenko str", 12L), new LocalAddress(" Shevchenko str ", 12L),
+                new LocalAddress("Shevchenko str", 14L)));
+
+        assertEquals(2, addresses.size());
+        assertEquals(2, countAddresses());
+        LocalAddress address = addresses.get("Shevchenko str#12");
+        assertEquals(address.getId(), localAddressStore.intern(new LocalAddress("Shevchenko str  ", 12L)).getId());
+        assertEquals(2, countAddresses());
+    }
+
+    @Test
+    public void intern_UntrimmedFirst_StoredTrimmed() {
+        LocalAddress address = localAddressStore.intern(new LocalAddress(" Shevchenko str ", 12L));
+
+        assertEquals("Shevchenko str", address.getStreet());
+        assertEquals("Shevchenko str", jdbcTemplate.queryForObject(
+                "SELECT street FROM local_addresses WHERE id = ?", String.class, address.getId()));
+    }
+
+    @Test
+    public void intern_Existing_Reused() {
+        LocalAddress existing = entityManager.persistAndFlush(new LocalAddress("Franko str", 3L));
+
+        LocalAddress address = localAddressStore.intern(new LocalAddress("Franko str", 3L));
+
+        assertEquals(existing.getId(), address.getId());
+        assertNotSame(existing, address);
+        assertEquals(1, countAddresses());
+    }
+
+    @Test
+    public void merge_Duplicates_UsersMoved() {
+        LocalAddress shared = entityManager.persistAndFlush(new LocalAddress("Franko str", 3L));
+        User neighbour = new User("anna@email.com", "Anna", "Smith", LocalDate.parse("2001-02-03"), null);
+        neighbour.setAddress(shared);
+        entityManager.persist(neighbour);
+        jdbcTemplate.update("INSERT INTO local_addresses (id, street, house_number) VALUES (?, ?, ?)",
+                DUPLICATE_ID, "Franko str ", 3L);
+        User user = new User("john@email.com", "John", "Johnson", LocalDate.parse("1990-05-01"), null);
+        user.setAddress(entityManager.find(LocalAddress.class, DUPLICATE_ID));
+        Long userId = entityManager.persistAndFlush(user).getId();
+        Long version = user.getVersion();
+        entityManager.clear();
+        LocalAddressMerger merger = new LocalAddressMerger(canonicalAddressRepository, localAddressStore,
+                transactionManager, eventPublisher, new ConcurrentMapCacheManager(), new MockEnvironment(),
+                new SimpleMeterRegistry());
+
+        assertEquals(1, merger.merge());
+
+        User merged = entityManager.find(User.class, userId);
+        assertEquals(shared.getId(), merged.getAddress().getId());
+        assertEquals(version + 1, merged.getVersion());
+        assertEquals(shared.getId(), entityManager.find(User.class, neighbour.getId()).getAddress().getId());
+        assertNull(entityManager.find(LocalAddress.class, DUPLICATE_ID));
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("Franko str ", event.getValue().getBefore().getStreet());
+        assertEquals("Franko str", event.getValue().getAfter().getStreet());
+        assertEquals(0, merger.merge());
+    }
+
+    private Integer countAddresses() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM local_addresses", Integer.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.user.task.service.bulk;
+
+import com.user.task.dto.request.UserBulkRequestDto;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.User;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.address.LocalAddressStore;
+import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.patch.UserField;
+import com.user.task.service.patch.UserPatch;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.user.task.config.AppConfig.USERS_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserBulkServiceTest {
+    private static final LocalDate FROM = LocalDate.parse("1979-12-31");
+    private static final LocalDate TO = LocalDate.parse("1990-01-01");
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(USERS_CACHE);
+
+    private UserBulkService userBulkService;
+
+    @BeforeEach
+    public void setUp() {
+        userBulkService = new UserBulkService(userRepository, userMapper, mock(LocalAddressStore.class),
+                mock(UserEligibility.class), eventPublisher, cacheManager, mock(PlatformTransactionManager.class),
+                new MockEnvironment().withProperty("users.bulk.chunk-size", "2"));
+    }
+
+    @Test
+    public void delete_DateRange_DeletedInChunks() throws Exception {
+        when(userRepository.countBetweenDates(FROM, TO)).thenReturn(3L);
+        when(userRepository.findIdsBetweenDatesAfter(eq(FROM), eq(TO), anyLong(), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(userRepository.findStatesByIdIn(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream()
+                .map(id -> new UserState(id, FROM.plusDays(id), "Street"))
+                .toList());
+        when(userRepository.deleteByIdIn(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .size());
+        Cache users = cacheManager.getCache(USERS_CACHE);
+        users.put(3L, new User());
+
+        UserBulkOperation operation = await(userBulkService.delete(request(null, FROM, TO)).getId());
+
+        assertEquals(UserBulkOperation.State.DONE, operation.getState());
+        assertEquals(3, operation.getTotal());
+        assertEquals(3, operation.getProcessed());
+        assertEquals(3, operation.getAffected());
+        verify(userRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(userRepository).deleteByIdIn(List.of(3L));
+        verify(userRepository).findIdsBetweenDatesAfter(eq(FROM), eq(TO), eq(2L), any());
+        verify(eventPublisher, times(3)).publishEvent(any(UserChangedEvent.class));
+        assertNull(users.get(3L));
+    }
+
+    @Test
+    public void patch_Ids_OnlyChangedCounted() throws Exception {
+        when(userRepository.findStatesByIdIn(any())).thenReturn(List.of());
+        when(userRepository.patchAll(any(), any())).thenReturn(1, 0);
+        User values = new User();
+        values.setLastName("Smith");
+        when(userMapper.mapToEntity(any())).thenReturn(values);
+
+        UserBulkOperation operation = await(userBulkService.patch(request(new UserRequestDto(), null, null))
+                .getId());
+
+        assertEquals(UserBulkOperation.State.DONE, operation.getState());
+        assertEquals(3, operation.getTotal());
+        assertEquals(3, operation.getProcessed());
+        assertEquals(1, operation.getAffected());
+        ArgumentCaptor<UserPatch> patch = ArgumentCaptor.forClass(UserPatch.class);
+        verify(userRepository).patchAll(eq(List.of(1L, 2L)), patch.capture());
+        verify(userRepository).patchAll(eq(List.of(3L)), any());
+        assertEquals("Smith", patch.getValue().getValue(UserField.LAST_NAME));
+    }
+
+    @Test
+    public void patch_Email_ExceptionThrown() {
+        User values = new User();
+        values.setEmail("john@email.com");
+        when(userMapper.mapToEntity(any())).thenReturn(values);
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userBulkService.patch(request(new UserRequestDto(), null, null))).getMessage();
+        assertEquals("Email can't be patched in bulk, it is unique per user", errorMessage);
+    }
+
+    @Test
+    public void delete_IdsAndDateRange_ExceptionThrown() {
+        UserBulkRequestDto request = request(null, FROM, TO);
+        request.setIds(List.of(1L));
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userBulkService.delete(request)).getMessage();
+        assertEquals("Bulk filter must have either ids or from and to", errorMessage);
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserBulkRequestDto request(UserRequestDto values, LocalDate from, LocalDate to) {
+        UserBulkRequestDto request = new UserBulkRequestDto();
+        if (from == null) {
+            request.setIds(List.of(3L, 1L, 2L, 1L));
+        } else {
+            request.setFrom(from.toString());
+            request.setTo(to.toString());
+        }
+        request.setValues(values);
+        return request;
+    }
+
+    private UserBulkOperation await(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            UserBulkOperation operation = userBulkService.get(id);
+            if (operation.getState() != UserBulkOperation.State.RUNNING) {
+                return operation;
+            }
+            Thread.sleep(50);
+        }
+        fail("Bulk operation " + id + " is still running");
+        return null;
+    }
+}
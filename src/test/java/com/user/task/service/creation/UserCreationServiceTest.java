@@ -0,0 +1,176 @@
+package com.user.task.service.creation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.task.config.AppConfig;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.exception.TooManyRequestsException;
+import com.user.task.model.User;
+import com.user.task.service.UserBatchService;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.email.EmailFilter;
+import com.user.task.service.mapper.UserMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCreationServiceTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @TempDir
+    Path directory;
+
+    private final List<UserCreationService> services = new ArrayList<>();
+
+    private final List<String> createdEmails = new CopyOnWriteArrayList<>();
+
+    private UserBatchService userBatchService;
+
+    private UserMapper userMapper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        userBatchService = mock(UserBatchService.class);
+        userMapper = mock(UserMapper.class);
+        User user = new User("john@email.com", "John", "Johnson", LocalDate.parse("2000-04-20"), null);
+        when(userMapper.mapToEntity(any())).thenReturn(user);
+        when(userBatchService.createAll(any())).thenAnswer(invocation -> {
+            Iterator<UserRequestDto> requests = invocation.getArgument(0);
+            List<UserBatchResultDto> results = new ArrayList<>();
+            while (requests.hasNext()) {
+                createdEmails.add(requests.next().getEmail());
+                results.add(UserBatchResultDto.created(results.size(), 100L + createdEmails.size()));
+            }
+            return new UserBatchResponseDto(results);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (UserCreationService service : services) {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void enqueue_Flushed_Created() throws Exception {
+        UserCreationService service = start(10, 1);
+
+        UserCreation creation = service.enqueue(request("john@email.com"));
+
+        assertEquals(UserCreation.State.CREATED, await(service, creation.getTicket()).getState());
+        assertEquals(101L, service.get(creation.getTicket()).getUserId());
+        assertEquals(List.of("john@email.com"), createdEmails);
+    }
+
+    @Test
+    public void enqueue_QueueFull_ExceptionThrown() throws Exception {
+        UserCreationService service = start(1, 0);
+
+        service.enqueue(request("john@email.com"));
+        String errorMessage = assertThrows(TooManyRequestsException.class,
+                () -> service.enqueue(request("mark@email.com"))).getMessage();
+        assertEquals("User creation queue is full, try again later", errorMessage);
+    }
+
+    @Test
+    public void start_PendingReplayed_Ok() throws Exception {
+        UserCreationService stopped = start(10, 0);
+        String ticket = stopped.enqueue(request("john@email.com")).getTicket();
+        stopped.stop();
+
+        UserCreationService restarted = start(10, 1);
+        assertEquals(UserCreation.State.CREATED, await(restarted, ticket).getState());
+        restarted.stop();
+        start(10, 1);
+        Thread.sleep(200);
+
+        assertEquals(List.of("john@email.com"), createdEmails);
+    }
+
+    @Test
+    public void enqueue_DatabaseUnavailable_Retried() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Iterator<UserRequestDto>>getArgument(0).next();
+            return new UserBatchResponseDto(List.of(UserBatchResultDto.unavailable(0, "Database is down")));
+        }).doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .doAnswer(invocation -> {
+                    Iterator<UserRequestDto> requests = invocation.getArgument(0);
+                    createdEmails.add(requests.next().getEmail());
+                    return new UserBatchResponseDto(List.of(UserBatchResultDto.created(0, 7L)));
+                })
+                .when(userBatchService).createAll(any());
+        UserCreationService service = start(10, 1);
+
+        String ticket = service.enqueue(request("john@email.com")).getTicket();
+        assertEquals(UserCreation.State.PENDING, service.get(ticket).getState());
+
+        assertEquals(UserCreation.State.CREATED, await(service, ticket).getState());
+        verify(userBatchService, times(3)).createAll(any());
+        service.stop();
+        start(10, 1);
+        Thread.sleep(200);
+
+        assertEquals(List.of("john@email.com"), createdEmails);
+    }
+
+    @Test
+    public void enqueue_Rejected_FailedForGood() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Iterator<UserRequestDto>>getArgument(0).next();
+            return new UserBatchResponseDto(List.of(UserBatchResultDto.failed(0, "Email is taken")));
+        }).when(userBatchService).createAll(any());
+        UserCreationService service = start(10, 1);
+
+        String ticket = service.enqueue(request("john@email.com")).getTicket();
+
+        assertEquals(UserCreation.State.FAILED, await(service, ticket).getState());
+        assertEquals("Email is taken", service.get(ticket).getErrorMessage());
+        verify(userBatchService, times(1)).createAll(any());
+    }
+
+    private UserCreationService start(int capacity, int writers) throws Exception {
+        AppConfig appConfig = mock(AppConfig.class);
+        when(appConfig.isCreateAsync()).thenReturn(true);
+        when(appConfig.getCreateQueueCapacity()).thenReturn(capacity);
+        when(appConfig.getCreateWriters()).thenReturn(writers);
+        when(appConfig.getBatchChunkSize()).thenReturn(100);
+        when(appConfig.getCreateJournal()).thenReturn(directory.resolve("creations.ndjson").toString());
+        UserCreationService service = new UserCreationService(userBatchService, userMapper, appConfig,
+                mock(UserEligibility.class), new ObjectMapper().findAndRegisterModules(), mock(EmailFilter.class));
+        service.start();
+        services.add(service);
+        return service;
+    }
+
+    private static UserCreation await(UserCreationService service, String ticket) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        UserCreation creation = service.get(ticket);
+        while (creation.getState() == UserCreation.State.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            creation = service.get(ticket);
+        }
+        return creation;
+    }
+
+    private static UserRequestDto request(String email) {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setEmail(email);
+        requestDto.setBirthDate(LocalDate.parse("2000-04-20"));
+        return requestDto;
+    }
+}
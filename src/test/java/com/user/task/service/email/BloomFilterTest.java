@@ -0,0 +1,40 @@
+package com.user.task.service.email;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    private static final int EMAILS = 100_000;
+
+    @Test
+    public void mightContain_PutEmails_Ok() {
+        BloomFilter filter = new BloomFilter(EMAILS, 0.01);
+
+        for (int i = 0; i < EMAILS; i++) {
+            filter.put("user" + i + "@email.com");
+        }
+
+        for (int i = 0; i < EMAILS; i++) {
+            assertTrue(filter.mightContain("user" + i + "@email.com"));
+        }
+        assertEquals(119_816, filter.getSizeInBytes());
+        assertEquals(0.01, filter.getFalsePositiveProbability(), 0.002);
+    }
+
+    @Test
+    public void mightContain_OtherEmails_FalsePositiveRateKept() {
+        BloomFilter filter = new BloomFilter(EMAILS, 0.01);
+        for (int i = 0; i < EMAILS; i++) {
+            filter.put("user" + i + "@email.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < EMAILS; i++) {
+            if (filter.mightContain("other" + i + "@email.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < EMAILS * 0.015, "false positives: " + falsePositives);
+    }
+}
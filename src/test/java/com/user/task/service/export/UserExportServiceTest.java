@@ -0,0 +1,78 @@
+package com.user.task.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.repository.UserExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({UserExportRepository.class, UserExportService.class, JacksonAutoConfiguration.class})
+class UserExportServiceTest {
+    @Autowired
+    UserExportService userExportService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TestEntityManager entityManager;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        LocalAddress address = entityManager.persist(new LocalAddress("Shevchenko str", 12L));
+        User withAddress = new User("john@email.com", "John", "Johnson", LocalDate.parse("1990-05-01"),
+                "+380671852382");
+        withAddress.setAddress(address);
+        users.add(entityManager.persist(withAddress));
+        users.add(entityManager.persist(new User("mark@email.com", "Mark \"Jr\"", "Twain, Clemens",
+                LocalDate.parse("1985-11-30"), null)));
+        users.add(entityManager.persist(new User("anna@email.com", "Anna", "Smith", LocalDate.parse("2001-02-03"),
+                null)));
+        entityManager.flush();
+    }
+
+    @Test
+    public void export_Ndjson_Ok() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(null, UserExportFormat.NDJSON, out);
+
+        StringBuilder expected = new StringBuilder();
+        for (User user : users) {
+            LocalAddress address = user.getAddress();
+            expected.append(objectMapper.writeValueAsString(new UserResponseDto(user.getId(), user.getEmail(),
+                    user.getFirstName(), user.getLastName(), user.getBirthDate(),
+                    address == null ? null : address.getId(), address == null ? null : address.getStreet(),
+                    address == null ? null : address.getHouseNumber(), user.getPhoneNumber()))).append('\n');
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void export_CsvAfterId_Ok() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(users.get(0).getId(), UserExportFormat.CSV, out);
+
+        assertEquals("id,email,first_name,last_name,birth_date,address_id,street,house_number,phone_number\r\n"
+                + users.get(1).getId() + ",mark@email.com,\"Mark \"\"Jr\"\"\",\"Twain, Clemens\",1985-11-30,,,,\r\n"
+                + users.get(2).getId() + ",anna@email.com,Anna,Smith,2001-02-03,,,,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
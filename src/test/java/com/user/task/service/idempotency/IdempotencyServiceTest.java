@@ -0,0 +1,172 @@
+package com.user.task.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.UnprocessableEntityException;
+import com.user.task.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+    private static final String KEY = "5d1c3e0a-retry";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = service(new MockEnvironment());
+    }
+
+    @Test
+    public void execute_Repeated_Replayed() throws Exception {
+        String fingerprint = idempotencyService.fingerprint("POST /users", "request");
+
+        ResponseEntity<?> first = idempotencyService.execute(KEY, fingerprint, this::createUser);
+        ResponseEntity<?> repeated = idempotencyService.execute(KEY, fingerprint, this::createUser);
+
+        assertEquals(1, executions.get());
+        assertInstanceOf(UserResponseDto.class, first.getBody());
+        assertEquals(HttpStatus.CREATED, repeated.getStatusCode());
+        assertEquals("\"3\"", repeated.getHeaders().getETag());
+        assertEquals("/users/1", repeated.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertEquals("true", repeated.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED));
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(first.getBody())), repeated.getBody());
+        assertEquals(1, meterRegistry.counter("users.idempotency.requests", "result", "replayed").count());
+    }
+
+    @Test
+    public void execute_OtherRequest_ExceptionThrown() {
+        idempotencyService.execute(KEY, idempotencyService.fingerprint("POST /users", "request"),
+                this::createUser);
+
+        String errorMessage = assertThrows(UnprocessableEntityException.class,
+                () -> idempotencyService.execute(KEY, idempotencyService.fingerprint("POST /users", "other"),
+                        this::createUser)).getMessage();
+        assertEquals("Idempotency-Key " + KEY + " was already used for another request", errorMessage);
+    }
+
+    @Test
+    public void execute_ConcurrentRepeat_ExecutedOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<?>> slowCreate = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return createUser();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> idempotencyService.execute(KEY, "POST /users",
+                    slowCreate));
+            started.await();
+            Future<ResponseEntity<?>> repeated = executor.submit(() -> idempotencyService.execute(KEY,
+                    "POST /users", slowCreate));
+            assertThrows(TimeoutException.class, () -> repeated.get(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+
+            assertEquals(HttpStatus.CREATED, first.get().getStatusCode());
+            assertEquals(HttpStatus.CREATED, repeated.get().getStatusCode());
+            assertEquals(1, executions.get());
+            assertEquals(1, meterRegistry.counter("users.idempotency.requests", "result", "joined").count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void execute_Failed_NotRemembered() {
+        assertThrows(DataProcessingException.class, () -> idempotencyService.execute(KEY, "POST /users", () -> {
+            throw new DataProcessingException("Email is not valid");
+        }));
+
+        idempotencyService.execute(KEY, "POST /users", this::createUser);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void execute_StoredByOtherInstance_Replayed() {
+        idempotencyService = service(new MockEnvironment().withProperty("users.idempotency.jdbc", "true"));
+        when(idempotencyKeyRepository.reserve(eq(KEY), any(), any(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepository.find(eq(KEY), any())).thenReturn(Optional.of(
+                new IdempotentResponse("POST /users", 201, "/users/1", "\"3\"", "{\"id\":1}".getBytes())));
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, "POST /users", this::createUser);
+
+        assertEquals(0, executions.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(objectMapper.createObjectNode().put("id", 1), response.getBody());
+    }
+
+    @Test
+    public void execute_RunningOnOtherInstance_ExceptionThrown() {
+        idempotencyService = service(new MockEnvironment().withProperty("users.idempotency.jdbc", "true"));
+        when(idempotencyKeyRepository.reserve(eq(KEY), any(), any(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepository.find(eq(KEY), any()))
+                .thenReturn(Optional.of(IdempotentResponse.pending("POST /users")));
+
+        String errorMessage = assertThrows(ConflictException.class,
+                () -> idempotencyService.execute(KEY, "POST /users", this::createUser)).getMessage();
+        assertEquals("A request with Idempotency-Key " + KEY + " is still in progress", errorMessage);
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void execute_Reserved_CompletedInStore() {
+        idempotencyService = service(new MockEnvironment().withProperty("users.idempotency.jdbc", "true"));
+        when(idempotencyKeyRepository.reserve(eq(KEY), any(), any(), any(), any())).thenReturn(true);
+
+        idempotencyService.execute(KEY, "POST /users", this::createUser);
+
+        verify(idempotencyKeyRepository).complete(eq(KEY), any());
+        verify(idempotencyKeyRepository, never()).release(any());
+    }
+
+    private IdempotencyService service(MockEnvironment environment) {
+        return new IdempotencyService(idempotencyKeyRepository, objectMapper, Clock.systemUTC(), environment,
+                meterRegistry);
+    }
+
+    private ResponseEntity<?> createUser() {
+        executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/users/1"))
+                .eTag("3")
+                .body(new UserResponseDto(1L, "john@email.com", "John", "Johnson", LocalDate.parse("2000-04-20"),
+                        null, null, null, null));
+    }
+}
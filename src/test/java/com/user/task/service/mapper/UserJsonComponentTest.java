@@ -0,0 +1,91 @@
+package com.user.task.service.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JsonTest
+class UserJsonComponentTest {
+    private final ObjectMapper reflectiveMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final UserMapper userMapper = new UserMapper(new LocalAddressMapper());
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void serialize_UserWithAddress_SameBytesAsDto() throws Exception {
+        User user = user(1L, new LocalAddress("Shevchenko str", 12L), "+380671852382");
+
+        assertSameBytes(user);
+    }
+
+    @Test
+    public void serialize_UserWithoutAddressAndPhone_SameBytesAsDto() throws Exception {
+        assertSameBytes(user(2L, null, null));
+        assertSameBytes(user(3L, new LocalAddress("Shevchenko \"old\" str", null), null));
+    }
+
+    @Test
+    public void serialize_DtoList_SameBytesAsReflective() throws Exception {
+        List<UserResponseDto> users = List.of(userMapper.mapToDto(user(1L, null, null)),
+                userMapper.mapToDto(user(2L, new LocalAddress("Шевченка", 7L), "+380671852382")));
+        TypeReference<List<UserResponseDto>> type = new TypeReference<>() {
+        };
+
+        assertArrayEquals(reflectiveMapper.writerFor(type).writeValueAsBytes(users),
+                objectMapper.writerFor(type).writeValueAsBytes(users));
+        assertInstanceOf(UserJsonComponent.UserResponseSerializer.class,
+                objectMapper.getSerializerProviderInstance().findValueSerializer(UserResponseDto.class));
+    }
+
+    @Test
+    public void serialize_Cbor_SameBytesAsDto() throws Exception {
+        User user = user(1L, new LocalAddress("Shevchenko str", 12L), "+380671852382");
+
+        assertArrayEquals(reflectiveMapper.copyWith(new CBORFactory()).writeValueAsBytes(userMapper.mapToDto(user)),
+                objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(user));
+    }
+
+    @Test
+    public void serialize_DatesAsTimestamps_SameBytesAsDto() throws Exception {
+        User user = user(1L, null, null);
+
+        assertArrayEquals(reflectiveMapper.copy()
+                        .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .writeValueAsBytes(userMapper.mapToDto(user)),
+                objectMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsBytes(user));
+    }
+
+    private void assertSameBytes(User user) throws Exception {
+        byte[] expected = reflectiveMapper.writeValueAsBytes(userMapper.mapToDto(user));
+        assertArrayEquals(expected, objectMapper.writeValueAsBytes(user));
+        assertArrayEquals(expected, objectMapper.writeValueAsBytes(userMapper.mapToDto(user)));
+    }
+
+    private static User user(Long id, LocalAddress address, String phoneNumber) {
+        User user = new User("user" + id + "@email.com", "John", "Johnson", LocalDate.parse("1990-05-01"),
+                phoneNumber);
+        user.setId(id);
+        if (address != null) {
+            address.setId(id + 10);
+            user.setAddress(address);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,65 @@
+package com.user.task.service.search;
+
+import com.user.task.dto.response.UserResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTest {
+    private static final int ROLLBACKS = 200;
+
+    @TempDir
+    Path directory;
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        index = new UserSearchIndex(directory);
+        index.add(new UserResponseDto(1L, "john@email.com", "John", "Smith", LocalDate.parse("1990-05-01"),
+                null, null, null, null));
+        index.commit();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    public void search_DuringRollback_CommittedFound() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean rollingBack = new AtomicBoolean(true);
+        try {
+            Future<Integer> searches = executor.submit(() -> {
+                int count = 0;
+                while (rollingBack.get()) {
+                    assertEquals(1, index.search(List.of("smi"), 0, 10).getUsers().size());
+                    count++;
+                }
+                return count;
+            });
+            for (int i = 0; i < ROLLBACKS; i++) {
+                index.delete(1L);
+                index.rollback();
+            }
+            rollingBack.set(false);
+
+            assertTrue(searches.get() > 0);
+        } finally {
+            rollingBack.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.user.task.service.search;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.dto.response.UserSearchResponseDto;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.ServiceUnavailableException;
+import com.user.task.repository.UserExportRepository;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserSearchServiceTest {
+    @TempDir
+    Path directory;
+
+    private UserRepository userRepository;
+
+    private UserExportRepository userExportRepository;
+
+    private UserSearchService userSearchService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        userRepository = mock(UserRepository.class);
+        userExportRepository = mock(UserExportRepository.class);
+        AppConfig appConfig = mock(AppConfig.class);
+        when(appConfig.getSearchDirectory()).thenReturn(directory.toString());
+        when(appConfig.getSearchRebuildThreads()).thenReturn(2);
+        when(appConfig.getPageSize()).thenReturn(10);
+        when(appConfig.getMaxPageSize()).thenReturn(100);
+        userSearchService = new UserSearchService(userRepository, userExportRepository, appConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        userSearchService.close();
+    }
+
+    @Test
+    public void search_PrefixAcrossFields_RankedByRelevance() {
+        userSearchService.rebuild();
+        when(userRepository.findAllDtosByIds(any())).thenReturn(List.of(
+                user(1L, "john.doe@email.com", "John", "Smith", "Main str"),
+                user(2L, "smithers@email.com", "Ann", "Lee", "Smith str"),
+                user(3L, "bob@email.com", "Bob", "Brown", null)));
+        for (long id = 1; id <= 3; id++) {
+            userSearchService.onUserChanged(UserChangedEvent.created(new UserState(id, null, null)));
+        }
+        userSearchService.refresh();
+
+        assertEquals(List.of(1L, 2L), ids(userSearchService.search("SMI", null, null)));
+        assertEquals(List.of(1L), ids(userSearchService.search("jo sm", null, null)));
+        assertEquals(List.of(2L), ids(userSearchService.search("smithers@", null, null)));
+        assertEquals(List.of(2L), ids(userSearchService.search("smi", 1, 1)));
+        UserSearchResponseDto page = userSearchService.search("email", 0, 2);
+        assertEquals(3, page.getTotal());
+        assertTrue(page.isTotalExact());
+        UserResponseDto read = page.getUsers().get(0);
+        assertEquals("john.doe@email.com", read.getEmail());
+        assertEquals(LocalDate.parse("1990-05-01"), read.getBirthDate());
+        assertEquals("Main str", read.getAddress().getStreet());
+        assertEquals(12L, read.getAddress().getHouseNumber());
+        assertNull(userSearchService.search("bob", null, null).getUsers().get(0).getAddress());
+    }
+
+    @Test
+    public void refresh_DeletedAndChangedUsers_Ok() {
+        userSearchService.rebuild();
+        when(userRepository.findAllDtosByIds(any())).thenReturn(List.of(
+                user(1L, "john@email.com", "John", "Smith", null),
+                user(2L, "ann@email.com", "Ann", "Lee", null)));
+        userSearchService.onUserChanged(UserChangedEvent.created(new UserState(1L, null, null)));
+        userSearchService.onUserChanged(UserChangedEvent.created(new UserState(2L, null, null)));
+        userSearchService.refresh();
+        when(userRepository.findAllDtosByIds(any())).thenReturn(List.of(
+                user(2L, "ann@email.com", "Ann", "Smithson", null)));
+
+        userSearchService.onUserChanged(UserChangedEvent.deleted(new UserState(1L, null, null)));
+        userSearchService.onUserChanged(UserChangedEvent.created(new UserState(2L, null, null)));
+        userSearchService.refresh();
+
+        assertEquals(List.of(2L), ids(userSearchService.search("smith", null, null)));
+        assertEquals(List.of(), ids(userSearchService.search("lee", null, null)));
+    }
+
+    @Test
+    public void rebuild_IdRanges_Ok() throws Exception {
+        List<UserResponseDto> users = List.of(user(3L, "a@email.com", "Ann", "Smith", "Main str"),
+                user(40L, "b@email.com", "Bob", "Smith", null),
+                user(97L, "c@email.com", "Carl", "Smith", null));
+        when(userExportRepository.findMaxId()).thenReturn(97L);
+        doAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (UserResponseDto user : users) {
+                if (user.getId() > afterId && user.getId() <= toId) {
+                    handler.processRow(row(user));
+                }
+            }
+            return null;
+        }).when(userExportRepository).exportBetween(anyLong(), anyLong(), any());
+
+        userSearchService.rebuild();
+
+        assertEquals(Set.of(3L, 40L, 97L), Set.copyOf(ids(userSearchService.search("smith", null, null))));
+        assertEquals("Main str", userSearchService.search("main", null, null).getUsers().get(0)
+                .getAddress().getStreet());
+        verify(userExportRepository, times(8)).exportBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void search_NotReady_ExceptionThrown() {
+        String errorMessage = assertThrows(ServiceUnavailableException.class,
+                () -> userSearchService.search("john", null, null)).getMessage();
+        assertEquals("Users search index is not ready yet, try again later", errorMessage);
+    }
+
+    @Test
+    public void search_EmptyQuery_ExceptionThrown() {
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> userSearchService.search(" @. ", null, null)).getMessage();
+        assertEquals("Search query must contain between 1 and 8 words", errorMessage);
+    }
+
+    private static List<Long> ids(UserSearchResponseDto page) {
+        return page.getUsers().stream().map(UserResponseDto::getId).toList();
+    }
+
+    private static UserResponseDto user(Long id, String email, String firstName, String lastName, String street) {
+        return new UserResponseDto(id, email, firstName, lastName, LocalDate.parse("1990-05-01"),
+                street == null ? null : id, street, street == null ? null : 12L, null);
+    }
+
+    private static ResultSet row(UserResponseDto user) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(user.getId());
+        when(row.getString("email")).thenReturn(user.getEmail());
+        when(row.getString("first_name")).thenReturn(user.getFirstName());
+        when(row.getString("last_name")).thenReturn(user.getLastName());
+        when(row.getObject("birth_date", LocalDate.class)).thenReturn(user.getBirthDate());
+        if (user.getAddress() != null) {
+            when(row.getObject("address_id", Long.class)).thenReturn(user.getAddress().getId());
+            when(row.getString("street")).thenReturn(user.getAddress().getStreet());
+            when(row.getObject("house_number", Long.class)).thenReturn(user.getAddress().getHouseNumber());
+        }
+        return row;
+    }
+}
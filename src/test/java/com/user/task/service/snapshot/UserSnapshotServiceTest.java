@@ -0,0 +1,103 @@
+package com.user.task.service.snapshot;
+
+import com.user.task.config.AppConfig;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ServiceUnavailableException;
+import com.user.task.repository.UserRepository;
+import com.user.task.service.stats.UserChangedEvent;
+import com.user.task.service.stats.UserState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserSnapshotServiceTest {
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private UserRepository userRepository;
+
+    private UserSnapshotService userSnapshotService;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        AppConfig appConfig = mock(AppConfig.class);
+        when(appConfig.getSnapshotDirectory()).thenReturn(directory.toString());
+        userSnapshotService = new UserSnapshotService(userRepository, appConfig,
+                mock(PlatformTransactionManager.class), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void getRange_FullExport_Ok() {
+        UserResponseDto withAddress = user(2L, "1990-05-01", "Shevchenko str");
+        when(userRepository.streamAllDtos()).thenReturn(Stream.of(user(1L, "1990-05-01", null), withAddress,
+                user(3L, "1995-01-01", "Shevchenko str")));
+
+        userSnapshotService.refresh();
+        UserSnapshotRange range = userSnapshotService.getRange("1990-05-01", "2000-01-01");
+
+        assertEquals(NOW, range.getAsOf());
+        assertEquals(1, range.getCount());
+        assertEquals(2, userSnapshotService.getRange("1990-04-30", "1995-01-01").getCount());
+        UserResponseDto read = userSnapshotService.getRange("1990-04-30", "1990-05-02").getUser(1);
+        assertEquals(withAddress.getId(), read.getId());
+        assertEquals(withAddress.getEmail(), read.getEmail());
+        assertEquals(withAddress.getBirthDate(), read.getBirthDate());
+        assertNull(read.getPhoneNumber());
+        assertEquals("Shevchenko str", read.getAddress().getStreet());
+        assertEquals(12L, read.getAddress().getHouseNumber());
+        assertNull(userSnapshotService.getRange("1990-04-30", "1990-05-02").getUser(0).getAddress());
+    }
+
+    @Test
+    public void refresh_ChangedUsers_Merged() throws Exception {
+        when(userRepository.streamAllDtos()).thenReturn(Stream.of(user(1L, "1990-05-01", "Main str"),
+                user(2L, "1991-05-01", "Main str"), user(3L, "1992-05-01", null)));
+        userSnapshotService.refresh();
+        when(userRepository.findAllDtosByIds(any())).thenReturn(List.of(user(4L, "1991-05-01", "New str"),
+                user(2L, "1993-05-01", "Main str")));
+
+        userSnapshotService.onUserChanged(UserChangedEvent.deleted(new UserState(1L, null, null)));
+        userSnapshotService.onUserChanged(UserChangedEvent.created(new UserState(2L, null, null)));
+        userSnapshotService.onUserChanged(UserChangedEvent.created(new UserState(4L, null, null)));
+        userSnapshotService.refresh();
+        userSnapshotService.refresh();
+
+        List<Long> ids = new ArrayList<>();
+        userSnapshotService.getRange("1980-01-01", "2000-01-01").forEach(user -> ids.add(user.getId()));
+        assertEquals(List.of(4L, 3L, 2L), ids);
+        verify(userRepository, times(1)).streamAllDtos();
+        verify(userRepository, times(1)).findAllDtosByIds(any());
+        try (Stream<Path> generations = Files.list(directory)) {
+            assertEquals(1, generations.count());
+        }
+    }
+
+    @Test
+    public void getRange_NotReady_ExceptionThrown() {
+        String errorMessage = assertThrows(ServiceUnavailableException.class,
+                () -> userSnapshotService.getRange("1990-01-01", "2000-01-01")).getMessage();
+        assertEquals("Users snapshot is not ready yet, try again later", errorMessage);
+    }
+
+    private static UserResponseDto user(Long id, String birthDate, String street) {
+        return new UserResponseDto(id, "user" + id + "@email.com", "John", "Johnson", LocalDate.parse(birthDate),
+                street == null ? null : id, street, street == null ? null : 12L, null);
+    }
+}
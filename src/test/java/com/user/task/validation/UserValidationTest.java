@@ -0,0 +1,60 @@
+package com.user.task.validation;
+
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserValidationTest {
+    private static final Pattern LEGACY_EMAIL_PATTERN = Pattern.compile("^(.+)@(\\S+)$");
+    private static final char[] EMAIL_ALPHABET = {'a', 'b', '.', '@', '@', ' ', '\t', '\n', '\r', '\u0085', '\u2028'};
+
+    @Test
+    public void isEmail_SameAsLegacyPattern_Ok() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            char[] chars = new char[random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = EMAIL_ALPHABET[random.nextInt(EMAIL_ALPHABET.length)];
+            }
+            String email = new String(chars);
+            assertEquals(LEGACY_EMAIL_PATTERN.matcher(email).matches(), Matchers.isEmail(email), email);
+        }
+    }
+
+    @Test
+    public void isEmail_AdversarialInput_Ok() {
+        assertFalse(Matchers.isEmail("a" + "@".repeat(100_000) + " "));
+        assertTrue(Matchers.isEmail("username@email.com"));
+    }
+
+    @Test
+    public void isPhoneNumber_Ok() {
+        assertTrue(Matchers.isPhoneNumber("+380671852382"));
+        assertTrue(Matchers.isPhoneNumber("(067) 185-23-82"));
+        assertFalse(Matchers.isPhoneNumber("+38067185238212345"));
+        assertFalse(Matchers.isPhoneNumber("12345"));
+        assertFalse(Matchers.isPhoneNumber("067 185 23 8x"));
+        assertFalse(Matchers.isPhoneNumber(""));
+    }
+
+    @Test
+    public void fullUserValidation_AllErrorsCollected() {
+        User user = new User();
+        user.setEmail("WrongEmail");
+        user.setBirthDate(LocalDate.now().plusDays(1));
+        user.setPhoneNumber("phone");
+
+        String errorMessage = assertThrows(DataProcessingException.class,
+                () -> UserValidation.fullUserValidation(user)).getMessage();
+        assertEquals("Any of email, birth date, first name or last name fields can't be empty; "
+                + "Email WrongEmail is not valid; "
+                + "Birth date must be earlier than current date; "
+                + "Phone number phone is not valid", errorMessage);
+    }
+}
@@ -0,0 +1,19 @@
+package com.user.task.reactive;
+
+import com.user.task.config.ClockConfig;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.mapper.LocalAddressMapper;
+import com.user.task.service.mapper.UserMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+@SpringBootApplication
+@Import({UserMapper.class, LocalAddressMapper.class, UserEligibility.class, ClockConfig.class})
+public class UserTaskReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(UserTaskReactiveApplication.class, args);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.user.task.reactive.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class ReactiveAppConfig {
+    private static final Integer BASE_PAGE_SIZE = 100;
+    private static final Integer BASE_MAX_PAGE_SIZE = 1000;
+    private static final Integer BASE_UPDATE_MAX_RETRIES = 3;
+
+    private final Environment environment;
+
+    public ReactiveAppConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    public Integer getPageSize() {
+        return environment.getProperty("users.page.size", Integer.class, BASE_PAGE_SIZE);
+    }
+
+    public Integer getMaxPageSize() {
+        return environment.getProperty("users.page.max-size", Integer.class, BASE_MAX_PAGE_SIZE);
+    }
+
+    public Integer getUpdateMaxRetries() {
+        return environment.getProperty("users.update.max-retries", Integer.class, BASE_UPDATE_MAX_RETRIES);
+    }
+}
@@ -0,0 +1,120 @@
+package com.user.task.reactive.controller;
+
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserPageResponseDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.exception.ErrorResponse;
+import com.user.task.reactive.service.ReactiveUserBatchService;
+import com.user.task.reactive.service.ReactiveUserService;
+import com.user.task.service.mapper.UserMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+import static com.user.task.util.ConstraintUtils.fromH2Message;
+import static com.user.task.util.ConstraintUtils.isEmailConstraint;
+import static com.user.task.util.ValidationUtils.isNot;
+
+@RestController
+@RequestMapping("/users")
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    private final ReactiveUserBatchService userBatchService;
+
+    private final UserMapper userMapper;
+
+    ReactiveUserController(ReactiveUserService userService, ReactiveUserBatchService userBatchService,
+                           UserMapper userMapper) {
+        this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userMapper = userMapper;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    Flux<UserResponseDto> getAll(@RequestParam String from, @RequestParam String to) {
+        return userService.getAll(from, to);
+    }
+
+    @GetMapping("/page")
+    Mono<UserPageResponseDto> getPage(@RequestParam String from, @RequestParam String to,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size) {
+        return userService.getPage(from, to, cursor, size).map(page -> {
+            UserPageResponseDto pageDto = new UserPageResponseDto();
+            pageDto.setUsers(page.getUsers()
+                    .stream()
+                    .map(userMapper::mapToDto)
+                    .collect(Collectors.toList()));
+            pageDto.setNextCursor(page.getNextCursor());
+            return pageDto;
+        });
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    Flux<UserResponseDto> stream(@RequestParam String from, @RequestParam String to) {
+        return userService.getAll(from, to);
+    }
+
+    @GetMapping("/{id}")
+    Mono<UserResponseDto> get(@PathVariable Long id) {
+        return userService.get(id).map(userMapper::mapToDto);
+    }
+
+    @PostMapping
+    Mono<UserResponseDto> create(@RequestBody UserRequestDto requestDto) {
+        return userService.create(requestDto).map(userMapper::mapToDto);
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    Mono<UserBatchResponseDto> createAll(@RequestBody Flux<UserRequestDto> requests) {
+        return userBatchService.createAll(requests);
+    }
+
+    @PutMapping("/{id}")
+    Mono<UserResponseDto> update(@PathVariable Long id, @RequestBody UserRequestDto requestDto) {
+        return userService.update(id, requestDto).map(userMapper::mapToDto);
+    }
+
+    @DeleteMapping("/{id}")
+    Mono<UserResponseDto> delete(@PathVariable Long id) {
+        return userService.delete(id).map(userMapper::mapToDto);
+    }
+
+    @PatchMapping("/{id}")
+    Mono<UserResponseDto> patch(@PathVariable Long id, @RequestBody UserRequestDto requestDto) {
+        return userService.patch(id, requestDto).map(userMapper::mapToDto);
+    }
+
+    @ExceptionHandler(DataProcessingException.class)
+    public ResponseEntity<ErrorResponse> handleException(DataProcessingException e) {
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleException(ConflictException e) {
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * A concurrent write that took the same email first, caught by the unique index. Any other violation is
+     * left to the default error handling.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleException(DataIntegrityViolationException e) {
+        if (isNot(isEmailConstraint(fromH2Message(e.getMostSpecificCause().getMessage())))) {
+            throw e;
+        }
+        return new ResponseEntity<>(new ErrorResponse("User with the same email already exists"), HttpStatus.CONFLICT);
+    }
+}
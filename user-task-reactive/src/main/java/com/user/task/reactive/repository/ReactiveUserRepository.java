@@ -0,0 +1,208 @@
+package com.user.task.reactive.repository;
+
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.service.pagination.UserCursor;
+import io.r2dbc.spi.Readable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static com.user.task.util.AddressUtils.normalizeStreet;
+import static java.util.Objects.*;
+
+@Repository
+public class ReactiveUserRepository {
+    private static final int FETCH_SIZE = 500;
+    private static final String SELECT_USERS = "SELECT u.id, u.email, u.first_name, u.last_name, u.birth_date,"
+            + " u.phone_number, u.version, a.id AS address_id, a.street, a.house_number"
+            + " FROM users u LEFT JOIN local_addresses a ON a.id = u.local_address_id";
+
+    private final DatabaseClient databaseClient;
+
+    ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql(SELECT_USERS + " WHERE u.id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapToUser)
+                .one();
+    }
+
+    public Flux<UserResponseDto> findAllBetweenDates(LocalDate from, LocalDate to) {
+        return databaseClient.sql(SELECT_USERS + " WHERE u.birth_date > :from AND u.birth_date < :to"
+                        + " ORDER BY u.birth_date, u.id")
+                .bind("from", from)
+                .bind("to", to)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveUserRepository::mapToDto)
+                .all();
+    }
+
+    public Flux<User> findPageBetweenDates(LocalDate from, LocalDate to, UserCursor after, int limit) {
+        if (isNull(after)) {
+            return databaseClient.sql(SELECT_USERS + " WHERE u.birth_date > :from AND u.birth_date < :to"
+                            + " ORDER BY u.birth_date, u.id LIMIT :limit")
+                    .bind("from", from)
+                    .bind("to", to)
+                    .bind("limit", limit)
+                    .map(ReactiveUserRepository::mapToUser)
+                    .all();
+        }
+        return databaseClient.sql(SELECT_USERS + " WHERE u.birth_date > :from AND u.birth_date < :to"
+                        + " AND (u.birth_date > :lastBirthDate OR (u.birth_date = :lastBirthDate AND u.id > :lastId))"
+                        + " ORDER BY u.birth_date, u.id LIMIT :limit")
+                .bind("from", from)
+                .bind("to", to)
+                .bind("lastBirthDate", after.getBirthDate())
+                .bind("lastId", after.getId())
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::mapToUser)
+                .all();
+    }
+
+    public Mono<User> save(User user) {
+        return saveAddress(user.getAddress())
+                .then(Mono.defer(() -> isNull(user.getId()) ? insertUser(user) : updateUser(user)));
+    }
+
+    /**
+     * The address of the user is shared with everyone living there, so it stays.
+     */
+    public Mono<Void> delete(User user) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id")
+                .bind("id", user.getId())
+                .then();
+    }
+
+    /**
+     * Points the user at the shared row of its address, inserting the row when nobody lives there yet. The street
+     * is trimmed like the key, as every shared row stores it. A row inserted concurrently under the same key fails
+     * the insert, the lookup after it reads that row.
+     */
+    private Mono<Void> saveAddress(LocalAddress address) {
+        if (isNull(address) || nonNull(address.getId())) {
+            return Mono.empty();
+        }
+        address.setStreet(normalizeStreet(address.getStreet()));
+        return findAddressId(address.getAddressKey())
+                .switchIfEmpty(Mono.defer(() -> insertAddress(address)
+                        .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty())
+                        .then(findAddressId(address.getAddressKey()))))
+                .doOnNext(address::setId)
+                .then();
+    }
+
+    private Mono<Long> findAddressId(String key) {
+        return databaseClient.sql("SELECT id FROM local_addresses WHERE address_key = :key")
+                .bind("key", key)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    private Mono<Void> insertAddress(LocalAddress address) {
+        return nextId("local_addresses_seq")
+                .flatMap(id -> {
+                    GenericExecuteSpec spec = databaseClient.sql("INSERT INTO local_addresses (id, street,"
+                                    + " house_number, address_key) VALUES (:id, :street, :houseNumber, :key)")
+                            .bind("id", id)
+                            .bind("key", address.getAddressKey());
+                    spec = bind(spec, "street", address.getStreet(), String.class);
+                    spec = bind(spec, "houseNumber", address.getHouseNumber(), Long.class);
+                    return spec.then();
+                });
+    }
+
+    private Mono<User> insertUser(User user) {
+        return nextId("users_seq")
+                .flatMap(id -> {
+                    user.setId(id);
+                    return bindUser(databaseClient.sql("INSERT INTO users (id, email, email_normalized,"
+                            + " first_name, last_name, birth_date, local_address_id, phone_number) VALUES (:id,"
+                            + " :email, :emailNormalized, :firstName, :lastName, :birthDate, :addressId,"
+                            + " :phoneNumber)"), user).then();
+                })
+                .thenReturn(user);
+    }
+
+    /**
+     * Updates the user only at the version it was read at, a write in between fails it with an
+     * {@link OptimisticLockingFailureException}.
+     */
+    private Mono<User> updateUser(User user) {
+        return bindUser(databaseClient.sql("UPDATE users SET email = :email,"
+                + " email_normalized = :emailNormalized, first_name = :firstName,"
+                + " last_name = :lastName, birth_date = :birthDate, local_address_id = :addressId,"
+                + " phone_number = :phoneNumber, version = version + 1 WHERE id = :id AND version = :version"), user)
+                .bind("version", user.getVersion())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new OptimisticLockingFailureException("User with id " + user.getId()
+                                + " was modified concurrently"));
+                    }
+                    user.setVersion(user.getVersion() + 1);
+                    return Mono.just(user);
+                });
+    }
+
+    /**
+     * The JPA application treats every sequence value it takes as the upper end of a block of 50 ids, so taking
+     * the value itself as a single id here never collides with it on a shared database.
+     */
+    private Mono<Long> nextId(String sequence) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private GenericExecuteSpec bindUser(GenericExecuteSpec spec, User user) {
+        spec = spec.bind("id", user.getId());
+        spec = bind(spec, "email", user.getEmail(), String.class);
+        spec = bind(spec, "emailNormalized", user.getEmailNormalized(), String.class);
+        spec = bind(spec, "firstName", user.getFirstName(), String.class);
+        spec = bind(spec, "lastName", user.getLastName(), String.class);
+        spec = bind(spec, "birthDate", user.getBirthDate(), LocalDate.class);
+        spec = bind(spec, "addressId", isNull(user.getAddress()) ? null : user.getAddress().getId(), Long.class);
+        return bind(spec, "phoneNumber", user.getPhoneNumber(), String.class);
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return isNull(value) ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static UserResponseDto mapToDto(Readable row) {
+        return new UserResponseDto(row.get("id", Long.class), row.get("email", String.class),
+                row.get("first_name", String.class), row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class), row.get("address_id", Long.class),
+                row.get("street", String.class), row.get("house_number", Long.class),
+                row.get("phone_number", String.class));
+    }
+
+    private static User mapToUser(Readable row) {
+        User user = new User(row.get("email", String.class), row.get("first_name", String.class),
+                row.get("last_name", String.class), row.get("birth_date", LocalDate.class),
+                row.get("phone_number", String.class));
+        user.setId(row.get("id", Long.class));
+        user.setVersion(row.get("version", Long.class));
+        Long addressId = row.get("address_id", Long.class);
+        if (nonNull(addressId)) {
+            LocalAddress address = new LocalAddress();
+            address.setId(addressId);
+            address.setStreet(row.get("street", String.class));
+            address.setHouseNumber(row.get("house_number", Long.class));
+            user.setAddress(address);
+        }
+        return user;
+    }
+}
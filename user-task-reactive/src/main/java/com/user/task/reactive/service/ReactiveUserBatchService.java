@@ -0,0 +1,34 @@
+package com.user.task.reactive.service;
+
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserBatchResponseDto;
+import com.user.task.dto.response.UserBatchResultDto;
+import com.user.task.exception.DataProcessingException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveUserBatchService {
+    private final ReactiveUserService userService;
+
+    ReactiveUserBatchService(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    public Mono<UserBatchResponseDto> createAll(Flux<UserRequestDto> requests) {
+        return requests.index()
+                .concatMap(request -> createOne(request.getT1().intValue(), request.getT2()))
+                .collectList()
+                .map(UserBatchResponseDto::new);
+    }
+
+    private Mono<UserBatchResultDto> createOne(int index, UserRequestDto requestDto) {
+        return userService.create(requestDto)
+                .map(user -> UserBatchResultDto.created(index, user.getId()))
+                .onErrorResume(DataProcessingException.class,
+                        e -> Mono.just(UserBatchResultDto.failed(index, e.getMessage())))
+                .onErrorResume(e -> Mono.just(UserBatchResultDto.failed(index,
+                        "User with email " + requestDto.getEmail() + " can't be saved")));
+    }
+}
@@ -0,0 +1,171 @@
+package com.user.task.reactive.service;
+
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.exception.ConflictException;
+import com.user.task.exception.DataProcessingException;
+import com.user.task.model.LocalAddress;
+import com.user.task.model.User;
+import com.user.task.reactive.config.ReactiveAppConfig;
+import com.user.task.reactive.repository.ReactiveUserRepository;
+import com.user.task.service.UserEligibility;
+import com.user.task.service.mapper.UserMapper;
+import com.user.task.service.pagination.UserCursor;
+import com.user.task.service.pagination.UserPage;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static com.user.task.validation.UserValidation.*;
+import static java.util.Objects.*;
+
+@Service
+public class ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ReactiveAppConfig appConfig;
+    private final UserEligibility userEligibility;
+
+    ReactiveUserService(ReactiveUserRepository userRepository, UserMapper userMapper, ReactiveAppConfig appConfig,
+                        UserEligibility userEligibility) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.appConfig = appConfig;
+        this.userEligibility = userEligibility;
+    }
+
+    @Transactional
+    public Mono<User> create(UserRequestDto requestDto) {
+        return Mono.fromCallable(() -> {
+            User newUser = userMapper.mapToEntity(requestDto);
+            fullUserValidation(newUser);
+            checkRegisterAge(newUser.getBirthDate());
+            return newUser;
+        }).flatMap(userRepository::save);
+    }
+
+    private void checkRegisterAge(LocalDate birthDate) {
+        userEligibility.check(birthDate);
+    }
+
+    public Flux<UserResponseDto> getAll(String from, String to) {
+        return Flux.defer(() -> {
+            LocalDate fromDate = LocalDate.parse(from);
+            LocalDate toDate = LocalDate.parse(to);
+            dateRangeValidation(fromDate, toDate);
+            return userRepository.findAllBetweenDates(fromDate, toDate);
+        });
+    }
+
+    public Mono<UserPage> getPage(String from, String to, String cursor, Integer size) {
+        return Mono.defer(() -> {
+            LocalDate fromDate = LocalDate.parse(from);
+            LocalDate toDate = LocalDate.parse(to);
+            dateRangeValidation(fromDate, toDate);
+            Integer pageSize = isNull(size) ? appConfig.getPageSize() : size;
+            pageSizeValidation(pageSize, appConfig.getMaxPageSize());
+            UserCursor after = isNull(cursor) ? null : UserCursor.decode(cursor);
+            return userRepository.findPageBetweenDates(fromDate, toDate, after, pageSize + 1)
+                    .collectList()
+                    .map(users -> users.size() > pageSize
+                            ? new UserPage(users.subList(0, pageSize),
+                            UserCursor.of(users.get(pageSize - 1)).encode())
+                            : new UserPage(users, null));
+        });
+    }
+
+    public Mono<User> get(Long id) {
+        return getSavedUser(id);
+    }
+
+    private Mono<User> getSavedUser(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new DataProcessingException("There is no such user with id " + id)));
+    }
+
+    @Transactional
+    public Mono<User> update(Long id, UserRequestDto requestDto) {
+        return Mono.fromCallable(() -> {
+                    User user = userMapper.mapToEntity(requestDto);
+                    fullUserValidation(user);
+                    checkRegisterAge(user.getBirthDate());
+                    return user;
+                })
+                .flatMap(user -> withRetry(id, () -> getSavedUser(id)
+                        .map(oldUser -> updateUserFields(oldUser, user))
+                        .flatMap(userRepository::save)));
+    }
+
+    /**
+     * A write that loses the race to a concurrent one is done again on a fresh copy of the user.
+     */
+    private Mono<User> withRetry(Long id, Supplier<Mono<User>> action) {
+        return Mono.defer(action)
+                .retryWhen(Retry.max(appConfig.getUpdateMaxRetries())
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> new ConflictException("User with id " + id
+                                + " was modified concurrently, try again")));
+    }
+
+    private User updateUserFields(User oldUser, User newUser) {
+        oldUser.setEmail(newUser.getEmail());
+        oldUser.setFirstName(newUser.getFirstName());
+        oldUser.setLastName(newUser.getLastName());
+        oldUser.setBirthDate(newUser.getBirthDate());
+        updateAddress(oldUser, newUser);
+        oldUser.setPhoneNumber(newUser.getPhoneNumber());
+        return oldUser;
+    }
+
+    private void updateAddress(User oldUser, User newUser) {
+        LocalAddress newAddress = newUser.getAddress();
+        if (isNull(newAddress) || newAddress.equals(oldUser.getAddress())) {
+            return;
+        }
+        // the address row is shared, so the user moves to the one of the new address instead of changing it
+        oldUser.setAddress(new LocalAddress(newAddress.getStreet(), newAddress.getHouseNumber()));
+    }
+
+    @Transactional
+    public Mono<User> delete(Long id) {
+        return getSavedUser(id).flatMap(user -> userRepository.delete(user).thenReturn(user));
+    }
+
+    @Transactional
+    public Mono<User> patch(Long id, UserRequestDto requestDto) {
+        return withRetry(id, () -> getSavedUser(id)
+                .map(oldUser -> {
+                    User newUser = userMapper.mapToEntity(requestDto);
+                    patchValidation(newUser);
+                    patchUserFields(oldUser, newUser);
+                    return oldUser;
+                })
+                .flatMap(userRepository::save));
+    }
+
+    private void patchUserFields(User oldUser, User newUser) {
+        if (nonNull(newUser.getEmail())) {
+            oldUser.setEmail(newUser.getEmail());
+        }
+        if (nonNull(newUser.getFirstName())) {
+            oldUser.setFirstName(newUser.getFirstName());
+        }
+        if (nonNull(newUser.getLastName())) {
+            oldUser.setLastName(newUser.getLastName());
+        }
+        if (nonNull(newUser.getBirthDate())) {
+            checkRegisterAge(newUser.getBirthDate());
+            oldUser.setBirthDate(newUser.getBirthDate());
+        }
+        updateAddress(oldUser, newUser);
+        if (nonNull(newUser.getPhoneNumber())) {
+            oldUser.setPhoneNumber(newUser.getPhoneNumber());
+        }
+    }
+}
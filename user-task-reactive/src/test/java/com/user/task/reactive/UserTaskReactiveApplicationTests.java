@@ -0,0 +1,171 @@
+package com.user.task.reactive;
+
+import com.user.task.dto.request.LocalAddressRequestDto;
+import com.user.task.dto.request.UserRequestDto;
+import com.user.task.dto.response.UserResponseDto;
+import com.user.task.model.User;
+import com.user.task.reactive.controller.ReactiveUserController;
+import com.user.task.reactive.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserTaskReactiveApplicationTests {
+    private static final String DEFAULT_FIRST_NAME = "John";
+    private static final String DEFAULT_LAST_NAME = "Johnson";
+
+    @Autowired
+    WebTestClient webTestClient;
+    @Autowired
+    ReactiveUserController userController;
+    @Autowired
+    ReactiveUserRepository userRepository;
+
+    @Test
+    public void createAndGet_Ok() {
+        UserResponseDto created = create(userRequest("create@email.com", "1990-05-10"))
+                .expectStatus().isOk()
+                .expectBody(UserResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(created.getId());
+        assertNotNull(created.getAddress().getId());
+        webTestClient.get().uri("/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("create@email.com")
+                .jsonPath("$.address.street").isEqualTo("Shevchenko str");
+    }
+
+    @Test
+    public void getAll_StreamedInBirthDateOrder_Ok() {
+        create(userRequest("stream2@email.com", "1971-02-02")).expectStatus().isOk();
+        create(userRequest("stream1@email.com", "1971-01-01")).expectStatus().isOk();
+
+        Flux<UserResponseDto> users = webTestClient.get()
+                .uri("/users?from=1970-12-31&to=1971-12-31")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserResponseDto.class)
+                .getResponseBody();
+
+        StepVerifier.create(users.map(UserResponseDto::getEmail), 1)
+                .expectNext("stream1@email.com")
+                .thenRequest(1)
+                .expectNext("stream2@email.com")
+                .verifyComplete();
+    }
+
+    @Test
+    public void create_NotValid_BadRequest() {
+        create(userRequest("not valid", "1990-05-10"))
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Email not valid is not valid");
+    }
+
+    @Test
+    public void patch_Ok() {
+        UserResponseDto created = create(userRequest("patch@email.com", "1985-03-03"))
+                .expectBody(UserResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        UserRequestDto patch = new UserRequestDto();
+        patch.setFirstName("Taras");
+
+        webTestClient.patch().uri("/users/{id}", created.getId())
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Taras")
+                .jsonPath("$.email").isEqualTo("patch@email.com")
+                .jsonPath("$.address.id").isEqualTo(created.getAddress().getId());
+    }
+
+    @Test
+    public void create_TakenEmail_Conflict() {
+        create(userRequest("taken@email.com", "1990-05-10")).expectStatus().isOk();
+
+        create(userRequest("taken@email.com", "1991-06-11"))
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("User with the same email already exists");
+    }
+
+    @Test
+    public void create_UntrimmedStreet_StoredTrimmed() {
+        UserRequestDto requestDto = userRequest("street@email.com", "1980-04-04");
+        requestDto.getAddress().setStreet(" Franko str ");
+
+        UserResponseDto created = create(requestDto)
+                .expectStatus().isOk()
+                .expectBody(UserResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals("Franko str", created.getAddress().getStreet());
+        assertEquals("Franko str", userRepository.findById(created.getId()).block().getAddress().getStreet());
+    }
+
+    @Test
+    public void save_StaleCopy_ExceptionThrown() {
+        UserResponseDto created = create(userRequest("stale@email.com", "1980-04-04"))
+                .expectBody(UserResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        User first = userRepository.findById(created.getId()).block();
+        User stale = userRepository.findById(created.getId()).block();
+        first.setFirstName("Taras");
+        stale.setFirstName("Ivan");
+
+        StepVerifier.create(userRepository.save(first))
+                .assertNext(user -> assertEquals(1L, user.getVersion()))
+                .verifyComplete();
+        StepVerifier.create(userRepository.save(stale))
+                .verifyError(OptimisticLockingFailureException.class);
+        assertEquals("Taras", userRepository.findById(created.getId()).block().getFirstName());
+    }
+
+    @Test
+    public void handleException_OtherConstraintViolated_Rethrown() {
+        DataIntegrityViolationException e = new DataIntegrityViolationException("execute", new RuntimeException(
+                "Referential integrity constraint violation: \"FK_USERS_LOCAL_ADDRESS: PUBLIC.USERS FOREIGN KEY\""));
+
+        assertSame(e, assertThrows(DataIntegrityViolationException.class, () -> userController.handleException(e)));
+    }
+
+    private WebTestClient.ResponseSpec create(UserRequestDto requestDto) {
+        return webTestClient.post().uri("/users")
+                .bodyValue(requestDto)
+                .exchange();
+    }
+
+    private UserRequestDto userRequest(String email, String birthDate) {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setEmail(email);
+        requestDto.setFirstName(DEFAULT_FIRST_NAME);
+        requestDto.setLastName(DEFAULT_LAST_NAME);
+        requestDto.setBirthDate(LocalDate.parse(birthDate));
+        LocalAddressRequestDto address = new LocalAddressRequestDto();
+        address.setStreet("Shevchenko str");
+        address.setHouseNumber(12L);
+        requestDto.setAddress(address);
+        return requestDto;
+    }
+}